@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.util.Random;
+
+/**
+ * Synthetic documents, generated so that the benchmarks don't depend on any external data
+ */
+public class Documents {
+
+    public enum Size {
+        SMALL(5), MEDIUM(500), LARGE(25000);
+
+        private final int books;
+
+        private Size(int books) {
+            this.books = books;
+        }
+    }
+
+    private static final String[] CATEGORIES = { "reference", "fiction", "poetry", "history", "science" };
+
+    private static final String[] AUTHORS = { "Nigel Rees", "Evelyn Waugh", "Herman Melville", "J. R. R. Tolkien",
+            "Mary Shelley", "Jane Austen", "Franz Kafka", "Virginia Woolf" };
+
+    private static final String[] WORDS = { "Sayings", "of", "the", "Century", "Sword", "Honour", "Moby", "Dick",
+            "Lord", "Rings", "Castle", "Waves", "Pride", "Prejudice", "Trial", "Frankenstein" };
+
+    private Documents() {
+        // static only
+    }
+
+    /**
+     * @return a store of books, like the document of the original JsonPath article, the same for a given size
+     */
+    public static String generate(Size size) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(size.books * 256);
+        json.append("{\"store\":{\"book\":[");
+        for (int i = 0; i < size.books; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":").append(i);
+            json.append(",\"category\":\"").append(CATEGORIES[random.nextInt(CATEGORIES.length)]).append('"');
+            json.append(",\"author\":\"").append(AUTHORS[random.nextInt(AUTHORS.length)]).append('"');
+            json.append(",\"title\":\"");
+            int nbWords = 2 + random.nextInt(4);
+            for (int w = 0; w < nbWords; w++) {
+                if (w > 0) {
+                    json.append(' ');
+                }
+                json.append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            json.append('"');
+            if (random.nextBoolean()) {
+                json.append(",\"isbn\":\"0-").append(100 + random.nextInt(900)).append('-')
+                        .append(10000 + random.nextInt(90000)).append("-").append(random.nextInt(10)).append('"');
+            }
+            json.append(",\"price\":").append(random.nextInt(3000) / 100.0);
+            json.append(",\"tags\":[");
+            int nbTags = random.nextInt(4);
+            for (int t = 0; t < nbTags; t++) {
+                if (t > 0) {
+                    json.append(',');
+                }
+                json.append('"').append(WORDS[random.nextInt(WORDS.length)].toLowerCase()).append('"');
+            }
+            json.append("],\"stock\":{\"count\":").append(random.nextInt(100)).append(",\"warehouse\":\"w")
+                    .append(random.nextInt(10)).append("\"}}");
+        }
+        json.append("],\"bicycle\":{\"color\":\"red\",\"price\":19.95}},");
+        json.append("\"limits\":{\"maxPrice\":10,\"currency\":\"EUR\"}}");
+        return json.toString();
+    }
+}
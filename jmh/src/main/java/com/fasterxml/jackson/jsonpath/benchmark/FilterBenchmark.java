@@ -0,0 +1,103 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.jsonpath.CompileMode;
+import com.fasterxml.jackson.jsonpath.JsonPath;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Cost per element of a filter over a large array, the scores and the allocations being normalized per element.
+ * <p>
+ * None of the elements is selected, so the difference between a filter and the bare <code>wildcard</code> is what
+ * the filter costs per element. With <code>-prof gc</code>, the <code>gc.alloc.rate.norm</code> of
+ * <code>filterOnThis</code> is the one of <code>wildcard</code>: moving the evaluation frame from element to element
+ * does not allocate anything. What <code>filterCompare</code> and <code>filterOnPos</code> allocate in addition is
+ * the cost of their operators and functions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(FilterBenchmark.ELEMENTS)
+public class FilterBenchmark {
+
+    static final int ELEMENTS = 100000;
+
+    private JsonNode document;
+
+    private JsonPath wildcard;
+
+    private JsonPath filterOnThis;
+
+    private JsonPath filterOnPos;
+
+    private JsonPath filterCompare;
+
+    @Setup
+    public void setup() throws IOException, ParseException {
+        ArrayNode items = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < ELEMENTS; i++) {
+            items.addObject().put("id", i).put("selected", false);
+        }
+        document = new ObjectMapper().createObjectNode().set("items", items);
+        wildcard = JsonPath.compile("$.items[*]", CompileMode.COMPILED);
+        filterOnThis = JsonPath.compile("$.items[*][?(@.selected)]", CompileMode.COMPILED);
+        filterOnPos = JsonPath.compile("$.items[*][?(pos() < 0)]", CompileMode.COMPILED);
+        filterCompare = JsonPath.compile("$.items[*][?(@.id < 0)]", CompileMode.COMPILED);
+    }
+
+    @Benchmark
+    public JsonPathValue wildcard() {
+        return wildcard.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue filterOnThis() {
+        return filterOnThis.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue filterOnPos() {
+        return filterOnPos.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue filterCompare() {
+        return filterCompare.eval(document);
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.jsonpath.JsonPath;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Evaluation of a compiled path on a raw document, parsing included. The streamable paths are matched on the tokens,
+ * the other ones need the whole tree; <code>tree*</code> is the baseline of parsing the whole tree first. The
+ * <code>smile*</code> ones read the same document encoded in Smile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InputBenchmark {
+
+    @Param({ "SMALL", "MEDIUM", "LARGE" })
+    public Documents.Size size;
+
+    @Param({ "$.store.bicycle.color", "$.store.book[*][?(@.price < 10)].title",
+            "$.store.book[*][?(@.price < $.limits.maxPrice)].id" })
+    public String path;
+
+    private ObjectMapper mapper = new ObjectMapper();
+
+    private String json;
+
+    private byte[] bytes;
+
+    private SmileFactory smileFactory = new SmileFactory();
+
+    private ObjectMapper smileMapper = new ObjectMapper(smileFactory);
+
+    private byte[] smileBytes;
+
+    private JsonPath jsonPath;
+
+    @Setup
+    public void setup() throws ParseException, IOException {
+        json = Documents.generate(size);
+        bytes = json.getBytes("UTF-8");
+        smileBytes = smileMapper.writeValueAsBytes(mapper.readTree(json));
+        jsonPath = JsonPath.compile(path);
+    }
+
+    @Benchmark
+    public JsonPathValue string() throws IOException {
+        return jsonPath.eval(json);
+    }
+
+    @Benchmark
+    public JsonPathValue inputStream() throws IOException {
+        return jsonPath.eval(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public JsonPathValue treeString() throws IOException {
+        return jsonPath.eval(mapper.readTree(json));
+    }
+
+    @Benchmark
+    public JsonPathValue treeInputStream() throws IOException {
+        return jsonPath.eval(mapper.readTree(new ByteArrayInputStream(bytes)));
+    }
+
+    @Benchmark
+    public JsonPathValue smileInputStream() throws IOException {
+        return jsonPath.eval(new ByteArrayInputStream(smileBytes), smileFactory);
+    }
+
+    @Benchmark
+    public JsonPathValue treeSmileInputStream() throws IOException {
+        return jsonPath.eval(smileMapper.readTree(new ByteArrayInputStream(smileBytes)));
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.jsonpath.JsonPath;
+import com.fasterxml.jackson.jsonpath.JsonPathParallelism;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * A costly filter over a large array, evaluated sequentially and in parallel on all the available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelBenchmark {
+
+    static final int RECORDS = 500000;
+
+    @Param({ "false", "true" })
+    public boolean parallel;
+
+    private ForkJoinPool pool;
+
+    private JsonNode document;
+
+    private JsonPath filter;
+
+    @Setup
+    public void setup() throws IOException, ParseException {
+        ArrayNode records = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < RECORDS; i++) {
+            records.addObject().put("id", i).put("score", (i * 37) % 100).put("name", "record-" + i);
+        }
+        document = JsonNodeFactory.instance.objectNode().set("records", records);
+        filter = JsonPath.compile("$.records[*][?(@.score > 90 && regexpMatch('record-.*7', @.name))]");
+        if (parallel) {
+            pool = new ForkJoinPool();
+            filter = filter.withParallelism(new JsonPathParallelism(pool));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public JsonPathValue filter() {
+        return filter.eval(document);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.jsonpath.JsonPath;
+import com.fasterxml.jackson.jsonpath.JsonPathFunctionRegistry;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpressionParser;
+
+/**
+ * Cost of turning a path string into something evaluable
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({ "$.store.bicycle.color", "$.store.book[*][?(@.price < 10 && @.category == 'fiction')].title",
+            "$.store.book[*][?(regexpMatch('.*Tolk[ie]+n$', @.author))].title", "$..*[?(pos() == 3)]",
+            "$['store']['book'][(1 + 2 * 3)]['title']",
+            "$.items[*][?(@.price >= 10.5 && @.quantity * 12 + 3 < 1000 || @.name == 'big \\'red\\' widget')].id" })
+    public String path;
+
+    @Benchmark
+    public JsonPathExpression parse() throws ParseException {
+        return JsonPathExpressionParser.parse(path, JsonPathFunctionRegistry.DEFAULT);
+    }
+
+    @Benchmark
+    public JsonPath compileCached() throws ParseException {
+        return JsonPath.compile(path);
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.benchmark;
+
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jsonpath.CompileMode;
+import com.fasterxml.jackson.jsonpath.IndexedDocument;
+import com.fasterxml.jackson.jsonpath.JsonPath;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Evaluation of already compiled paths on an already parsed document
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SelectionBenchmark {
+
+    @Param({ "SMALL", "MEDIUM", "LARGE" })
+    public Documents.Size size;
+
+    @Param({ "INTERPRETED", "COMPILED" })
+    public CompileMode mode;
+
+    private JsonNode document;
+
+    private IndexedDocument indexedDocument;
+
+    private JsonPath fieldChain;
+
+    private JsonPath wildcard;
+
+    private JsonPath filter;
+
+    private JsonPath filterOnRoot;
+
+    private JsonPath descendant;
+
+    private JsonPath descendantFilter;
+
+    private JsonPath regexpMatch;
+
+    @Setup
+    public void setup() throws IOException, ParseException {
+        document = new ObjectMapper().readTree(Documents.generate(size));
+        indexedDocument = new IndexedDocument(document);
+        fieldChain = JsonPath.compile("$.store.bicycle.color", mode);
+        wildcard = JsonPath.compile("$.store.book[*].author", mode);
+        filter = JsonPath.compile("$.store.book[*][?(@.price < 10 && @.category == 'fiction')].title", mode);
+        filterOnRoot = JsonPath.compile("$.store.book[*][?(@.price < $.limits.maxPrice)].id", mode);
+        descendant = JsonPath.compile("$..*", mode);
+        descendantFilter = JsonPath.compile("$..*[?(name() == 'stock')].count", mode);
+        regexpMatch = JsonPath.compile("$.store.book[*][?(regexpMatch('.*Tolk[ie]+n$', @.author))].title", mode);
+    }
+
+    @Benchmark
+    public JsonPathValue fieldChain() {
+        return fieldChain.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue wildcard() {
+        return wildcard.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue filter() {
+        return filter.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue filterOnRoot() {
+        return filterOnRoot.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue descendant() {
+        return descendant.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue descendantFilter() {
+        return descendantFilter.eval(document);
+    }
+
+    @Benchmark
+    public JsonPathValue descendantIndexed() {
+        return descendant.eval(indexedDocument);
+    }
+
+    @Benchmark
+    public JsonPathValue descendantFilterIndexed() {
+        return descendantFilter.eval(indexedDocument);
+    }
+
+    @Benchmark
+    public JsonPathValue regexpMatch() {
+        return regexpMatch.eval(document);
+    }
+}
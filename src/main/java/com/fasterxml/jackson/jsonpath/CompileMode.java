@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+/**
+ * How a path is evaluated once parsed.
+ */
+public enum CompileMode {
+
+    /**
+     * The parsed expression tree is directly evaluated.
+     */
+    INTERPRETED,
+
+    /**
+     * The parsed expression tree is first compiled, flattening the chains of selectors and the operators on single
+     * values into specialized nodes. Compiling costs a little more, evaluating costs less.
+     */
+    COMPILED
+}
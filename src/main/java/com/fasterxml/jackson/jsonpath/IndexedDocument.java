@@ -0,0 +1,307 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * An index of a json document, to evaluate many paths on the same document without walking the whole tree each time
+ * a path descends into it, like <code>$..*</code>, <code>$..*.id</code> or <code>$..*[?(name() == 'id')]</code>.
+ * <p>
+ * The nodes are numbered in pre-order, so that the descendants of a node are the nodes which follow it, up to the end
+ * of its subtree. For each node the index keeps its name in its parent, its parent and its depth, and for each name
+ * the nodes having that name. The document must not be modified once indexed. The index is immutable, so it can be
+ * shared by concurrent evaluations.
+ */
+public class IndexedDocument {
+
+    private static final int[] NO_IDS = new int[0];
+
+    // the names of the first elements of the arrays, shared by all the arrays
+    private static final String[] INDEX_NAMES = new String[1024];
+
+    static {
+        for (int i = 0; i < INDEX_NAMES.length; i++) {
+            INDEX_NAMES[i] = Integer.toString(i);
+        }
+    }
+
+    private final JsonNode[] nodes;
+
+    // the field name or the index of the nodes in their parent, null for the root
+    private final String[] names;
+
+    private final int[] parents;
+
+    private final int[] depths;
+
+    // the end of the subtree of the nodes, exclusive
+    private final int[] ends;
+
+    // the ids of the objects and the arrays, in order
+    private final int[] containers;
+
+    // the ids of the arrays, in order
+    private final int[] arrays;
+
+    // the ids of the nodes having a name, in order
+    private final Map<String, int[]> idsByName;
+
+    // open addressing table of the containers by identity, storing id + 1, or 0 for an empty slot
+    private final int[] containerTable;
+
+    private int size;
+
+    private int nbContainers;
+
+    private int nbArrays;
+
+    public IndexedDocument(JsonNode root) {
+        if (root == null) {
+            throw new NullPointerException();
+        }
+        int n = count(root);
+        nodes = new JsonNode[n];
+        names = new String[n];
+        parents = new int[n];
+        depths = new int[n];
+        ends = new int[n];
+        containers = new int[nbContainers];
+        arrays = new int[nbArrays];
+        nbContainers = 0;
+        nbArrays = 0;
+        Map<String, int[]> nameCounts = new HashMap<String, int[]>();
+        index(root, null, -1, 0, nameCounts);
+
+        idsByName = new HashMap<String, int[]>(nameCounts.size() * 2);
+        for (Entry<String, int[]> entry : nameCounts.entrySet()) {
+            idsByName.put(entry.getKey(), new int[entry.getValue()[0]]);
+            entry.getValue()[0] = 0;
+        }
+        for (int id = 1; id < n; id++) {
+            int[] count = nameCounts.get(names[id]);
+            idsByName.get(names[id])[count[0]++] = id;
+        }
+
+        containerTable = new int[Integer.highestOneBit(Math.max(containers.length, 1)) * 4];
+        for (int id : containers) {
+            int slot = slot(nodes[id]);
+            while (containerTable[slot] != 0) {
+                slot = (slot + 1) & (containerTable.length - 1);
+            }
+            containerTable[slot] = id + 1;
+        }
+    }
+
+    private int count(JsonNode node) {
+        int n = 1;
+        if (node.isContainerNode()) {
+            nbContainers++;
+            if (node.isArray()) {
+                nbArrays++;
+            }
+            for (JsonNode child : node) {
+                n += count(child);
+            }
+        }
+        return n;
+    }
+
+    private void index(JsonNode node, String name, int parent, int depth, Map<String, int[]> nameCounts) {
+        int id = size++;
+        nodes[id] = node;
+        names[id] = name;
+        parents[id] = parent;
+        depths[id] = depth;
+        if (name != null) {
+            int[] count = nameCounts.get(name);
+            if (count == null) {
+                nameCounts.put(name, new int[] { 1 });
+            } else {
+                count[0]++;
+            }
+        }
+        if (node.isContainerNode()) {
+            containers[nbContainers++] = id;
+            if (node.isArray()) {
+                arrays[nbArrays++] = id;
+                int i = 0;
+                for (JsonNode child : node) {
+                    index(child, i < INDEX_NAMES.length ? INDEX_NAMES[i] : Integer.toString(i), id, depth + 1,
+                            nameCounts);
+                    i++;
+                }
+            } else {
+                for (Iterator<Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+                    Entry<String, JsonNode> field = fields.next();
+                    index(field.getValue(), field.getKey(), id, depth + 1, nameCounts);
+                }
+            }
+        }
+        ends[id] = size;
+    }
+
+    private int slot(JsonNode node) {
+        int h = System.identityHashCode(node);
+        return (h ^ (h >>> 16)) & (containerTable.length - 1);
+    }
+
+    public JsonNode getRoot() {
+        return nodes[0];
+    }
+
+    /**
+     * @return the number of nodes in the document
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    public JsonNode getNode(int id) {
+        return nodes[id];
+    }
+
+    /**
+     * @return the field name or the index of the node in its parent, <code>null</code> for the root
+     */
+    public String getName(int id) {
+        return names[id];
+    }
+
+    /**
+     * @return the id of the parent of the node, -1 for the root
+     */
+    public int getParent(int id) {
+        return parents[id];
+    }
+
+    /**
+     * @return the depth of the node, zero for the root
+     */
+    public int getDepth(int id) {
+        return depths[id];
+    }
+
+    /**
+     * @return the end of the subtree of the node, exclusive: the descendants of the node are the ids from
+     *         <code>id + 1</code> to that end
+     */
+    public int getSubtreeEnd(int id) {
+        return ends[id];
+    }
+
+    /**
+     * @return the id of the object or array, looked up by identity, or -1 if it is not a container of the document
+     */
+    public int indexOfContainer(JsonNode node) {
+        if (node == nodes[0]) {
+            return 0;
+        }
+        if (!node.isContainerNode()) {
+            return -1;
+        }
+        for (int slot = slot(node);; slot = (slot + 1) & (containerTable.length - 1)) {
+            int id = containerTable[slot] - 1;
+            if (id < 0) {
+                return -1;
+            }
+            if (nodes[id] == node) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @return the container and the containers under it, in pre-order, as descended by <code>..*</code>
+     */
+    public JsonPathVectorValue descendants(int id) {
+        int from = lowerBound(containers, id);
+        int to = lowerBound(containers, ends[id]);
+        JsonPathVectorValue ret = new JsonPathVectorValue(to - from);
+        for (int i = from; i < to; i++) {
+            int c = containers[i];
+            // the container we descend from is not named
+            ret.add(nodes[c], c == id ? null : names[c]);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the containers under the container which have that name, in pre-order
+     */
+    public JsonPathVectorValue descendantsNamed(int id, String name) {
+        int[] ids = idsByName(name);
+        int from = lowerBound(ids, id + 1);
+        int to = lowerBound(ids, ends[id]);
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        for (int i = from; i < to; i++) {
+            JsonNode node = nodes[ids[i]];
+            if (node.isContainerNode()) {
+                ret.add(node, name);
+            }
+        }
+        return ret;
+    }
+
+    /**
+     * @return the values of the field in the container and in the objects under it, in the pre-order of the objects
+     */
+    public JsonPathVectorValue fieldOfDescendants(int id, String field) {
+        int[] ids = idsByName(field);
+        int from = lowerBound(ids, id + 1);
+        int to = lowerBound(ids, ends[id]);
+        // the fields come in the pre-order of their own subtree, so sort them by the position of their object
+        long[] fields = new long[to - from];
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            int parent = parents[ids[i]];
+            if (nodes[parent].isObject()) {
+                fields[n++] = ((long) parent << 32) | ids[i];
+            }
+        }
+        Arrays.sort(fields, 0, n);
+        JsonPathVectorValue ret = new JsonPathVectorValue(n);
+        for (int i = 0; i < n; i++) {
+            ret.add(nodes[(int) fields[i]], null);
+        }
+        return ret;
+    }
+
+    /**
+     * @return <code>true</code> if the node is an array or has arrays under it
+     */
+    public boolean hasArray(int id) {
+        return lowerBound(arrays, id) < lowerBound(arrays, ends[id]);
+    }
+
+    private int[] idsByName(String name) {
+        int[] ids = idsByName.get(name);
+        return ids == null ? NO_IDS : ids;
+    }
+
+    /**
+     * @return the index of the first id greater than or equal to the given one
+     */
+    private static int lowerBound(int[] ids, int id) {
+        int i = Arrays.binarySearch(ids, id);
+        return i >= 0 ? i : -i - 1;
+    }
+}
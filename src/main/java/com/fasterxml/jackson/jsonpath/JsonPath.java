@@ -17,61 +17,530 @@ package com.fasterxml.jackson.jsonpath;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.jsonpath.internal.JavaNodes;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathCompiler;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathCounters;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathExpressionParser;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathProfiler;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathSetEvaluator;
 
 public class JsonPath {
 
+    private static volatile JsonPathCache cache = new JsonPathCache();
+
+    // null when the compilations and the evaluations are not measured
+    private static volatile JsonPathMetrics metrics;
+
+    // the views of the java objects, shared to introspect the beans once
+    static final JavaNodes javaNodes = new JavaNodes(new ObjectMapper());
+
     private ObjectMapper jsonMapper = new ObjectMapper();
 
+    private String path;
+
     private JsonPathExpression expr;
 
-    JsonPath(JsonPathExpression expr) {
+    private CompileMode compileMode;
+
+    private JsonPathParallelism parallelism;
+
+    private JsonPathExpression evaluated;
+
+    private JsonPathSetEvaluator setEvaluator;
+
+    private JsonPathSetEvaluator streamingEvaluator;
+
+    JsonPath(String path, JsonPathExpression expr, CompileMode compileMode) {
+        this(path, expr, compileMode, null);
+    }
+
+    private JsonPath(String path, JsonPathExpression expr, CompileMode compileMode, JsonPathParallelism parallelism) {
+        this.path = path;
         this.expr = expr;
+        this.compileMode = compileMode;
+        this.parallelism = parallelism;
+        this.evaluated = compileMode == CompileMode.COMPILED ? JsonPathCompiler.compile(expr) : expr;
+        JsonPathSetEvaluator evaluator = new JsonPathSetEvaluator(Collections.singletonList(expr),
+                Collections.singletonList(compileMode), Collections.singletonList(parallelism), jsonMapper);
+        this.setEvaluator = evaluator;
+        if (evaluator.isStreamable()) {
+            this.streamingEvaluator = evaluator;
+        }
+    }
+
+    JsonPathExpression getExpression() {
+        return expr;
+    }
+
+    public CompileMode getCompileMode() {
+        return compileMode;
+    }
+
+    /**
+     * @return the parallel evaluation of this path, <code>null</code> if it is evaluated sequentially
+     */
+    public JsonPathParallelism getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the same path, evaluating the large vectors in parallel as configured, or sequentially if the
+     *         parallelism is <code>null</code>
+     */
+    public JsonPath withParallelism(JsonPathParallelism parallelism) {
+        return new JsonPath(path, expr, compileMode, parallelism);
     }
 
     public JsonPathValue eval(JsonNode node) {
         if (node == null) {
             throw new NullPointerException();
         }
-        return expr.eval(new JsonPathContext(node));
+        return evalContext(new JsonPathContext(node, parallelism), -1);
+    }
+
+    /**
+     * Evaluate the path on an indexed document, looking up the descendants in the index rather than walking the tree
+     */
+    public JsonPathValue eval(IndexedDocument document) {
+        if (document == null) {
+            throw new NullPointerException();
+        }
+        return evalContext(new JsonPathContext(document, parallelism), -1);
+    }
+
+    /**
+     * @return whether the path selects at least one value in the node, the evaluation stopping at the first one
+     */
+    public boolean exists(JsonNode node) {
+        return limit(node, 1).getNodes().iterator().hasNext();
+    }
+
+    /**
+     * @return the first value selected by the path in the node, a missing node if there is none
+     */
+    public JsonNode first(JsonNode node) {
+        Iterator<JsonNode> nodes = limit(node, 1).getNodes().iterator();
+        return nodes.hasNext() ? nodes.next() : MissingNode.getInstance();
+    }
+
+    /**
+     * Evaluate the path on the node, the selectors and the filters stopping as soon as they have produced the values
+     * needed. It is evaluated sequentially, and the errors which would be raised on the values past the
+     * <code>n</code> first ones may not be raised.
+     * 
+     * @return the first <code>n</code> values selected by the path
+     */
+    public JsonPathValue limit(JsonNode node, int n) {
+        if (node == null) {
+            throw new NullPointerException();
+        }
+        if (n < 0) {
+            throw new IllegalArgumentException("limit can not be negative");
+        }
+        return evalContext(new JsonPathContext(node, parallelism), n);
+    }
+
+    /**
+     * Evaluate the path on the node, measuring each operator of the evaluated expression. The evaluation is
+     * interpreted and sequential whatever the compile mode and the parallelism of the path, and slower than a plain
+     * one, as every operator invocation is timed.
+     * 
+     * @return the tree of the operators with their measures
+     */
+    public JsonPathProfile profile(JsonNode node) {
+        if (node == null) {
+            throw new NullPointerException();
+        }
+        return JsonPathProfiler.profile(expr, new JsonPathContext(node));
+    }
+
+    /**
+     * Evaluate the path on the node and write the result to the generator, a vector being written element by element
+     * rather than first copied into an array node
+     */
+    public void evalTo(JsonNode node, JsonGenerator generator) throws IOException {
+        eval(node).writeTo(generator);
+    }
+
+    /**
+     * Evaluate the path on a graph of java objects, the maps, the collections, the arrays and the beans being navigated
+     * as json containers, and only the visited values being converted to json nodes
+     */
+    public JsonPathValue evalObject(Object value) {
+        return eval(javaNodes.wrap(value));
     }
 
     public JsonPathValue eval(String json) throws JsonProcessingException, IOException {
-        return eval(jsonMapper.readTree(json));
+        return evalAndClose(jsonMapper.getFactory().createParser(json));
     }
 
     public JsonPathValue eval(URL jsonURL) throws IOException {
-        return eval(jsonMapper.readTree(jsonURL));
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonURL));
     }
 
     public JsonPathValue eval(File jsonFile) throws IOException {
         if (!jsonFile.exists()) {
             throw new IllegalArgumentException("json file does not exist");
         }
-        return eval(jsonMapper.readTree(jsonFile));
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonFile));
+    }
+
+    /**
+     * Evaluate the path on a file mapped in memory rather than read through a buffered stream, which suits the files of
+     * several gigabytes. As with the other inputs, the json tree is only built for the values the path selects when
+     * they can be evaluated while streaming.
+     */
+    public JsonPathValue evalMapped(File jsonFile) throws IOException {
+        if (!jsonFile.exists()) {
+            throw new IllegalArgumentException("json file does not exist");
+        }
+        return evalAndClose(jsonMapper.getFactory().createParser(new MappedFileInputStream(jsonFile)));
     }
 
     public JsonPathValue eval(InputStream jsonInputStream) throws IOException {
         if (jsonInputStream == null) {
             throw new IllegalArgumentException("json input stream can not be null");
         }
-        return eval(jsonMapper.readTree(jsonInputStream));
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonInputStream));
+    }
+
+    /**
+     * Evaluate the path on a document read by the factory, which may be of any format Jackson has a parser for, such as
+     * Smile or CBOR. The path is matched on the tokens as for json text.
+     */
+    public JsonPathValue eval(File file, JsonFactory factory) throws IOException {
+        if (!file.exists()) {
+            throw new IllegalArgumentException("file does not exist");
+        }
+        return evalAndClose(factory.createParser(file));
+    }
+
+    public JsonPathValue eval(InputStream inputStream, JsonFactory factory) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("input stream can not be null");
+        }
+        return evalAndClose(factory.createParser(inputStream));
+    }
+
+    /**
+     * Evaluate the path on the next json value read from the parser, without building the whole json tree when the
+     * path allows it. The parser is left on the last token of the value.
+     */
+    public JsonPathValue evalStreaming(JsonParser parser) throws IOException {
+        if (parser == null) {
+            throw new IllegalArgumentException("json parser can not be null");
+        }
+        if (!parser.hasCurrentToken() && parser.nextToken() == null) {
+            throw JsonMappingException.from(parser, "No content to map due to end-of-input");
+        }
+        JsonPathMetrics metrics = JsonPath.metrics;
+        if (metrics == null) {
+            return evalTokens(parser, null);
+        }
+        JsonPathCounters counters = new JsonPathCounters();
+        long start = System.nanoTime();
+        long startOffset = offset(parser.getTokenLocation());
+        JsonPathValue value = evalTokens(parser, counters);
+        long endOffset = offset(parser.getCurrentLocation());
+        long documentSize = startOffset < 0 || endOffset < 0 ? -1 : endOffset - startOffset;
+        report(metrics, System.nanoTime() - start, documentSize, value, counters);
+        return value;
+    }
+
+    private JsonPathValue evalTokens(JsonParser parser, JsonPathCounters counters) throws IOException {
+        if (streamingEvaluator == null) {
+            JsonPathContext context = new JsonPathContext(jsonMapper.<JsonNode> readTree(parser), parallelism);
+            context.setCounters(counters);
+            return evaluated.eval(context);
+        }
+        return streamingEvaluator.eval(parser, null, counters).get(0);
+    }
+
+    private static long offset(JsonLocation location) {
+        return location.getByteOffset() >= 0 ? location.getByteOffset() : location.getCharOffset();
+    }
+
+    /**
+     * @param limit
+     *            the number of values needed, negative for the whole value evaluated in parallel as configured
+     */
+    private JsonPathValue evalContext(JsonPathContext context, int limit) {
+        JsonPathMetrics metrics = JsonPath.metrics;
+        if (metrics == null) {
+            return limit < 0 ? evaluated.eval(context) : evaluated.eval(context, limit);
+        }
+        JsonPathCounters counters = new JsonPathCounters();
+        context.setCounters(counters);
+        long start = System.nanoTime();
+        JsonPathValue value = limit < 0 ? evaluated.eval(context) : evaluated.eval(context, limit);
+        report(metrics, System.nanoTime() - start, -1, value, counters);
+        return value;
+    }
+
+    private void report(JsonPathMetrics metrics, long nanos, long documentSize, JsonPathValue value,
+            JsonPathCounters counters) {
+        int cardinality;
+        if (value instanceof JsonPathVectorValue) {
+            cardinality = ((JsonPathVectorValue) value).size();
+        } else {
+            cardinality = value.asNode().isMissingNode() ? 0 : 1;
+        }
+        metrics.evaluated(path, nanos, documentSize, cardinality, counters.getScanned(), counters.getFunctionCalls());
+    }
+
+    /**
+     * Evaluate the path on the next json value read from the parser, as {@link #evalStreaming(JsonParser)} does, and
+     * write the result to the generator, a vector being written element by element rather than first copied into an
+     * array node
+     */
+    public void evalTo(JsonParser parser, JsonGenerator generator) throws IOException {
+        evalStreaming(parser).writeTo(generator);
+    }
+
+    /**
+     * Start an incremental evaluation of the path on a json document to be given in chunks, the tokens being read by a
+     * task of the executor as the chunks arrive. A path only made of field names and indexes is given to the listener
+     * as soon as the value it selects is read, without waiting for the rest of the document.
+     * 
+     * @param listener
+     *            the listener of the value, or <code>null</code>
+     */
+    public JsonPathFeed feed(JsonPathListener listener, Executor executor) {
+        return new JsonPathFeed(setEvaluator, jsonMapper.getFactory(), listener, executor);
+    }
+
+    /**
+     * Evaluate the path on each document, concurrently in the executor, with at most twice as many documents in flight
+     * as there are processors.
+     * 
+     * @return the values, in the order of the documents
+     * @throws JsonPathRuntimeException
+     *             the error of the first document on which the evaluation failed
+     */
+    public List<JsonPathValue> evalAll(Iterable<JsonNode> documents, Executor executor)
+            throws InterruptedIOException {
+        return evalAll(documents, executor, defaultWindow());
+    }
+
+    /**
+     * Evaluate the path on each document, concurrently in the executor, the next document being taken from the
+     * iterable only when there are less than <code>window</code> documents in flight.
+     * 
+     * @return the values, in the order of the documents
+     * @throws JsonPathRuntimeException
+     *             the error of the first document on which the evaluation failed
+     */
+    public List<JsonPathValue> evalAll(Iterable<JsonNode> documents, Executor executor, int window)
+            throws InterruptedIOException {
+        JsonPathBatch<JsonNode, JsonPathValue> batch = new JsonPathBatch<JsonNode, JsonPathValue>(executor,
+                window) {
+            @Override
+            JsonPathValue eval(JsonNode document) {
+                return JsonPath.this.eval(document);
+            }
+        };
+        try {
+            return batch.run(documents.iterator());
+        } catch (InterruptedIOException e) {
+            throw e;
+        } catch (IOException e) {
+            throw new IllegalStateException("unexpected error while evaluating json nodes", e);
+        }
+    }
+
+    /**
+     * Parse each json input stream and evaluate the path on it, concurrently in the executor, with at most twice as
+     * many inputs in flight as there are processors. The streams are closed once read.
+     * 
+     * @return the values, in the order of the inputs
+     * @throws IOException
+     *             the error of the first input which failed to be read or parsed
+     * @throws JsonPathRuntimeException
+     *             the error of the first input on which the evaluation failed
+     */
+    public List<JsonPathValue> evalAll(Iterator<? extends InputStream> jsonInputStreams, Executor executor)
+            throws IOException {
+        return evalAll(jsonInputStreams, executor, defaultWindow());
+    }
+
+    /**
+     * Parse each json input stream and evaluate the path on it, concurrently in the executor, the next stream being
+     * taken from the iterator only when there are less than <code>window</code> streams in flight. The streams are
+     * closed once read.
+     * 
+     * @return the values, in the order of the inputs
+     * @throws IOException
+     *             the error of the first input which failed to be read or parsed
+     * @throws JsonPathRuntimeException
+     *             the error of the first input on which the evaluation failed
+     */
+    public List<JsonPathValue> evalAll(Iterator<? extends InputStream> jsonInputStreams, Executor executor,
+            int window) throws IOException {
+        JsonPathBatch<InputStream, JsonPathValue> batch = new JsonPathBatch<InputStream, JsonPathValue>(
+                executor, window) {
+            @Override
+            JsonPathValue eval(InputStream jsonInputStream) throws IOException {
+                return JsonPath.this.eval(jsonInputStream);
+            }
+        };
+        return batch.run(jsonInputStreams);
+    }
+
+    /**
+     * Evaluate the path on each json value of the input stream, like the lines of a newline delimited json input. The
+     * values are read one after the other by the same parser, and evaluated only when the iterator is moved to them,
+     * so that the memory used doesn't depend on the length of the input. The stream is closed once read.
+     * 
+     * @return the values of the path, in the order of the json values in the stream
+     */
+    public Iterator<JsonPathValue> evalSequence(InputStream jsonInputStream) throws IOException {
+        if (jsonInputStream == null) {
+            throw new IllegalArgumentException("json input stream can not be null");
+        }
+        return new JsonPathSequence(this, jsonMapper.getFactory().createParser(jsonInputStream));
+    }
+
+    /**
+     * Evaluate the path on each line of a newline delimited json file, the file being split in parts at line
+     * boundaries, each part being mapped in memory and evaluated in the executor.
+     * 
+     * @return the values of the path, in the order of the lines
+     * @throws IOException
+     *             the error of the first part which failed to be read or parsed
+     * @throws JsonPathRuntimeException
+     *             the error of the first part on which the evaluation failed
+     */
+    public List<JsonPathValue> evalSequence(final File jsonFile, Executor executor, int parts) throws IOException {
+        if (!jsonFile.exists()) {
+            throw new IllegalArgumentException("json file does not exist");
+        }
+        if (parts < 1) {
+            throw new IllegalArgumentException("parts must be positive");
+        }
+        final long[] bounds = MappedFileInputStream.splitLines(jsonFile, parts);
+        JsonPathBatch<Integer, List<JsonPathValue>> batch = new JsonPathBatch<Integer, List<JsonPathValue>>(
+                executor, bounds.length - 1) {
+            @Override
+            List<JsonPathValue> eval(Integer part) throws IOException {
+                JsonParser parser = jsonMapper.getFactory().createParser(
+                        new MappedFileInputStream(jsonFile, bounds[part], bounds[part + 1],
+                                MappedFileInputStream.DEFAULT_CHUNK_SIZE));
+                try {
+                    List<JsonPathValue> values = new ArrayList<JsonPathValue>();
+                    while (parser.nextToken() != null) {
+                        values.add(evalStreaming(parser));
+                    }
+                    return values;
+                } finally {
+                    parser.close();
+                }
+            }
+        };
+        List<Integer> indexes = new ArrayList<Integer>();
+        for (int i = 0; i < bounds.length - 1; i++) {
+            indexes.add(i);
+        }
+        List<JsonPathValue> values = new ArrayList<JsonPathValue>();
+        for (List<JsonPathValue> partValues : batch.run(indexes.iterator())) {
+            values.addAll(partValues);
+        }
+        return values;
+    }
+
+    private static int defaultWindow() {
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    private JsonPathValue evalAndClose(JsonParser parser) throws IOException {
+        try {
+            return evalStreaming(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    /**
+     * Parse and compile the path, the time taken being reported to the metrics
+     */
+    static JsonPath create(String path, JsonPathFunctionRegistry functionRegistry, CompileMode compileMode)
+            throws ParseException {
+        JsonPathMetrics metrics = JsonPath.metrics;
+        if (metrics == null) {
+            return new JsonPath(path, JsonPathExpressionParser.parse(path, functionRegistry), compileMode);
+        }
+        long start = System.nanoTime();
+        JsonPath jsonPath = new JsonPath(path, JsonPathExpressionParser.parse(path, functionRegistry), compileMode);
+        metrics.compiled(path, System.nanoTime() - start);
+        return jsonPath;
+    }
+
+    /**
+     * @return the metrics to which the compilations and the evaluations are reported, <code>null</code> if none
+     */
+    public static JsonPathMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Report the compilations and the evaluations of the paths to the metrics, <code>null</code> to stop measuring
+     * them. The evaluations of a {@link JsonPathSet} are not reported.
+     */
+    public static void setMetrics(JsonPathMetrics metrics) {
+        JsonPath.metrics = metrics;
+    }
+
+    /**
+     * @return the cache of the paths compiled by the static methods
+     */
+    public static JsonPathCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Replace the cache of the paths compiled by the static methods, a cache of size zero disabling the caching
+     */
+    public static void setCache(JsonPathCache cache) {
+        if (cache == null) {
+            throw new IllegalArgumentException("cache can not be null");
+        }
+        JsonPath.cache = cache;
     }
 
     public static JsonPath compile(String path) throws ParseException {
-        return new JsonPath(JsonPathExpressionParser.parse(path, JsonPathFunctionRegistry.DEFAULT));
+        return cache.get(path, JsonPathFunctionRegistry.DEFAULT, CompileMode.INTERPRETED);
+    }
+
+    public static JsonPath compile(String path, CompileMode compileMode) throws ParseException {
+        return cache.get(path, JsonPathFunctionRegistry.DEFAULT, compileMode);
     }
 
     public static JsonPath compile(String path, JsonPathFunctionRegistry functionRegistry) throws ParseException {
-        return new JsonPath(JsonPathExpressionParser.parse(path, functionRegistry));
+        return cache.get(path, functionRegistry, CompileMode.INTERPRETED);
+    }
+
+    public static JsonPath compile(String path, JsonPathFunctionRegistry functionRegistry, CompileMode compileMode)
+            throws ParseException {
+        return cache.get(path, functionRegistry, compileMode);
     }
 
     public static JsonPathValue eval(JsonNode node, String path) throws ParseException {
@@ -94,4 +563,9 @@ public class JsonPath {
     public static JsonPathValue eval(InputStream jsonInputStream, String path) throws IOException, ParseException {
         return compile(path).eval(jsonInputStream);
     }
+
+    @Override
+    public String toString() {
+        return path;
+    }
 }
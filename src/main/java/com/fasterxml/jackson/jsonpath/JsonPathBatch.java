@@ -0,0 +1,130 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Evaluation of a batch of inputs by an executor.
+ * <p>
+ * At most <code>window</code> inputs are in flight: the next input is only taken from the iterator once the oldest
+ * one is evaluated, so a slow evaluation slows down the reading of the inputs rather than piling them up in memory.
+ * The results are collected in the order of the inputs. If some evaluations fail, the ones in flight are waited for,
+ * then the error of the first failing input is thrown.
+ */
+abstract class JsonPathBatch<T, R> {
+
+    private final Executor executor;
+
+    private final int window;
+
+    JsonPathBatch(Executor executor, int window) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor can not be null");
+        }
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be positive");
+        }
+        this.executor = executor;
+        this.window = window;
+    }
+
+    abstract R eval(T input) throws IOException;
+
+    List<R> run(Iterator<? extends T> inputs) throws IOException {
+        List<R> results = new ArrayList<R>();
+        LinkedList<FutureTask<R>> inFlight = new LinkedList<FutureTask<R>>();
+        Throwable error = null;
+        while (error == null && inputs.hasNext()) {
+            if (inFlight.size() == window) {
+                error = collect(inFlight.removeFirst(), results);
+            }
+            if (error == null) {
+                final T input = inputs.next();
+                FutureTask<R> task = new FutureTask<R>(new Callable<R>() {
+                    @Override
+                    public R call() throws IOException {
+                        return eval(input);
+                    }
+                });
+                try {
+                    executor.execute(task);
+                    inFlight.add(task);
+                } catch (RejectedExecutionException e) {
+                    error = e;
+                }
+            }
+        }
+        for (FutureTask<R> task : inFlight) {
+            Throwable e = collect(task, results);
+            if (error == null) {
+                error = e;
+            }
+        }
+        if (error == null) {
+            return results;
+        }
+        if (error instanceof IOException) {
+            throw (IOException) error;
+        }
+        if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        }
+        if (error instanceof Error) {
+            throw (Error) error;
+        }
+        throw new IllegalStateException(error);
+    }
+
+    /**
+     * Wait for the task and add its result
+     * 
+     * @return the error raised by the task, or an {@link InterruptedIOException} if the wait was interrupted
+     */
+    private static <R> Throwable collect(FutureTask<R> task, List<R> results) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    R result = task.get();
+                    if (interrupted) {
+                        return new InterruptedIOException("interrupted while evaluating a batch");
+                    }
+                    results.add(result);
+                    return null;
+                } catch (ExecutionException e) {
+                    return e.getCause();
+                } catch (InterruptedException e) {
+                    // keep waiting, as the task may be reading an input it has to close
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.text.ParseException;
+
+import com.fasterxml.jackson.jsonpath.internal.LruCache;
+
+/**
+ * A bounded cache of compiled paths, keyed by the path, the identity of the function registry and the compile mode.
+ * <p>
+ * It is split into segments, each one holding its paths in least recently used order, so that concurrent lookups
+ * rarely contend. A maximum size of zero disables the caching. As the registry is compared by identity, functions
+ * registered after a path has been cached are not seen by that path.
+ */
+public class JsonPathCache {
+
+    public static final int DEFAULT_MAXIMUM_SIZE = 1024;
+
+    private final LruCache<Key, JsonPath> paths;
+
+    public JsonPathCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    public JsonPathCache(int maximumSize) {
+        paths = new LruCache<Key, JsonPath>(maximumSize);
+    }
+
+    /**
+     * @return the compiled path, compiling it if not cached
+     */
+    public JsonPath get(String path, JsonPathFunctionRegistry functionRegistry) throws ParseException {
+        return get(path, functionRegistry, CompileMode.INTERPRETED);
+    }
+
+    /**
+     * @return the compiled path, compiling it if not cached
+     */
+    public JsonPath get(String path, JsonPathFunctionRegistry functionRegistry, CompileMode compileMode)
+            throws ParseException {
+        Key key = new Key(path, functionRegistry, compileMode);
+        JsonPath jsonPath = paths.get(key);
+        if (jsonPath != null) {
+            return jsonPath;
+        }
+        return paths.putIfAbsent(key, JsonPath.create(path, functionRegistry, compileMode));
+    }
+
+    public int getMaximumSize() {
+        return paths.getMaximumSize();
+    }
+
+    public int size() {
+        return paths.size();
+    }
+
+    public void clear() {
+        paths.clear();
+    }
+
+    public long getHitCount() {
+        return paths.getHitCount();
+    }
+
+    public long getMissCount() {
+        return paths.getMissCount();
+    }
+
+    public long getEvictionCount() {
+        return paths.getEvictionCount();
+    }
+
+    @Override
+    public String toString() {
+        return "JsonPathCache" + paths;
+    }
+
+    private static class Key {
+
+        private final String path;
+
+        private final JsonPathFunctionRegistry functionRegistry;
+
+        private final CompileMode compileMode;
+
+        Key(String path, JsonPathFunctionRegistry functionRegistry, CompileMode compileMode) {
+            this.path = path;
+            this.functionRegistry = functionRegistry;
+            this.compileMode = compileMode;
+        }
+
+        @Override
+        public int hashCode() {
+            return (path.hashCode() * 31 + System.identityHashCode(functionRegistry)) * 31 + compileMode.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) obj;
+            return path.equals(other.path) && functionRegistry == other.functionRegistry
+                    && compileMode == other.compileMode;
+        }
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathSetEvaluator;
+
+/**
+ * Incremental evaluation of paths on a json document received in chunks, like the body of a request read from the
+ * network.
+ * <p>
+ * The chunks are given with {@link #feed(byte[], int, int)}, which never blocks, and the end of the document is
+ * signaled with {@link #endOfInput()}. The tokens are read as the chunks arrive by a task of the executor, started by
+ * the first chunk, which gives the values to the listener as soon as they are known: the paths only made of field
+ * names and indexes (like <code>$.header.tenant</code>) as soon as the value they select is read, the other ones at the
+ * end of the document. The listener is called by the executor thread, which is blocked while waiting for the next
+ * chunk: the executor must run the task in another thread than the one feeding the chunks, and a feed which will not
+ * be completed, like the body of a request whose client went away, must be {@link #cancel() cancelled} to release
+ * that thread.
+ * <p>
+ * The chunks waiting to be read are not bounded: a caller feeding faster than the executor reads should watch
+ * {@link #getBufferedBytes()} and stop reading its input while it is too high.
+ * <p>
+ * Once the document is read, or the evaluation failed, the remaining chunks are ignored.
+ */
+public class JsonPathFeed {
+
+    private static final byte[] END = new byte[0];
+
+    private final BlockingQueue<byte[]> chunks = new LinkedBlockingQueue<byte[]>();
+
+    private final AtomicLong bufferedBytes = new AtomicLong();
+
+    private final Executor executor;
+
+    private final FutureTask<List<JsonPathValue>> task;
+
+    private volatile boolean done;
+
+    private boolean started;
+
+    private boolean ended;
+
+    // the thread starting the task, to detect an executor running it in that thread
+    private volatile Thread starter;
+
+    private volatile boolean runByStarter;
+
+    JsonPathFeed(final JsonPathSetEvaluator evaluator, final JsonFactory factory, final JsonPathListener listener,
+            Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("executor can not be null");
+        }
+        this.executor = executor;
+        task = new FutureTask<List<JsonPathValue>>(new Callable<List<JsonPathValue>>() {
+            @Override
+            public List<JsonPathValue> call() throws IOException {
+                try {
+                    if (Thread.currentThread() == starter) {
+                        // reading would wait for chunks which this thread can't give anymore
+                        runByStarter = true;
+                        throw new IllegalStateException("the executor must run the evaluation in another thread");
+                    }
+                    JsonParser parser = factory.createParser(new ChunkInputStream());
+                    try {
+                        return evaluator.eval(parser, listener == null ? null : new JsonPathListener() {
+                            @Override
+                            public void onValue(int index, JsonPathValue value) {
+                                // the parser may still hold some chunks read before the cancellation
+                                if (!task.isCancelled()) {
+                                    listener.onValue(index, value);
+                                }
+                            }
+                        });
+                    } finally {
+                        parser.close();
+                    }
+                } finally {
+                    done = true;
+                    clear();
+                }
+            }
+        });
+    }
+
+    private void start() {
+        if (started || task.isCancelled()) {
+            return;
+        }
+        started = true;
+        starter = Thread.currentThread();
+        try {
+            executor.execute(task);
+        } finally {
+            starter = null;
+        }
+        if (runByStarter) {
+            throw new IllegalStateException("the executor must run the evaluation in another thread");
+        }
+    }
+
+    /**
+     * Give the next chunk of the document. The bytes are copied, so the buffer can be reused once this returns.
+     * 
+     * @throws IllegalStateException
+     *             if the executor ran the evaluation in the calling thread
+     */
+    public synchronized void feed(byte[] bytes, int off, int len) {
+        if (ended && !task.isCancelled()) {
+            throw new IllegalStateException("the end of input was already signaled");
+        }
+        if (off < 0 || len < 0 || off + len > bytes.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        if (len == 0 || done) {
+            return;
+        }
+        byte[] chunk = new byte[len];
+        System.arraycopy(bytes, off, chunk, 0, len);
+        bufferedBytes.addAndGet(len);
+        chunks.add(chunk);
+        start();
+        if (done) {
+            // the evaluation ended while the chunk was added
+            clear();
+        }
+    }
+
+    /**
+     * Signal that the whole document was given
+     */
+    public synchronized void endOfInput() {
+        if (!ended && !task.isCancelled()) {
+            ended = true;
+            chunks.add(END);
+            start();
+        }
+    }
+
+    /**
+     * Abandon the evaluation, like when the document will never be completed: the task reading it is released, the
+     * listener is not called anymore, the next chunks are ignored and {@link #get()} throws a
+     * {@link CancellationException}
+     */
+    public synchronized void cancel() {
+        task.cancel(false);
+        done = true;
+        clear();
+        if (started) {
+            // wake up the task waiting for the next chunk, so that it ends on a truncated document
+            chunks.add(END);
+        }
+    }
+
+    private void clear() {
+        chunks.clear();
+        bufferedBytes.set(0);
+    }
+
+    /**
+     * @return true if the evaluation ended, successfully or not, or was cancelled
+     */
+    public boolean isDone() {
+        return done;
+    }
+
+    /**
+     * @return the number of bytes fed but not read yet
+     */
+    public long getBufferedBytes() {
+        return Math.max(0, bufferedBytes.get());
+    }
+
+    /**
+     * Wait for the end of the evaluation, once the end of input is signaled
+     * 
+     * @return the values of the paths, in the order of the paths
+     * @throws IOException
+     *             the error raised while reading the document
+     * @throws JsonPathRuntimeException
+     *             the error of the first path on which the evaluation failed
+     * @throws CancellationException
+     *             if the evaluation was cancelled
+     */
+    public List<JsonPathValue> get() throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for the evaluation");
+        } catch (ExecutionException e) {
+            Throwable error = e.getCause();
+            if (error instanceof IOException) {
+                throw (IOException) error;
+            }
+            if (error instanceof RuntimeException) {
+                throw (RuntimeException) error;
+            }
+            if (error instanceof Error) {
+                throw (Error) error;
+            }
+            throw new IllegalStateException(error);
+        }
+    }
+
+    /**
+     * Stream of the chunks, waiting for the next one when all the given ones are read
+     */
+    private class ChunkInputStream extends InputStream {
+
+        private byte[] chunk = new byte[0];
+
+        private int pos;
+
+        private boolean eof;
+
+        private boolean next() throws IOException {
+            while (!eof && pos == chunk.length) {
+                try {
+                    chunk = chunks.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("interrupted while waiting for the next chunk");
+                }
+                bufferedBytes.addAndGet(-chunk.length);
+                pos = 0;
+                eof = chunk == END;
+            }
+            return !eof;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!next()) {
+                return -1;
+            }
+            return chunk[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (!next()) {
+                return -1;
+            }
+            int n = Math.min(len, chunk.length - pos);
+            System.arraycopy(chunk, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return chunk.length - pos;
+        }
+    }
+}
@@ -12,6 +12,14 @@ public abstract class JsonPathFunction {
         return false;
     }
 
+    /**
+     * @return <code>false</code> if the result of the function only depends on its arguments, so that a call on
+     *         arguments which don't depend on the current element can be evaluated once for all the elements
+     */
+    public boolean isContextDependent() {
+        return true;
+    }
+
     public JsonPathValue call(JsonPathContext context, List<JsonNode> args) {
         JsonNode node = callAsNode(context, args);
         if (node == null || node.isMissingNode()) {
@@ -11,6 +11,15 @@ public abstract class JsonPathFunctionParser {
 
     public abstract JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException;
 
+    /**
+     * Parse a call to the function found in the registry, for the functions depending on the resources of the
+     * registry. By default the registry is ignored.
+     */
+    public JsonPathFunction parse(int position, List<JsonPathExpression> arguments,
+            JsonPathFunctionRegistry functionRegistry) throws ParseException {
+        return parse(position, arguments);
+    }
+
     protected void checkNumberOfArg(int position, List<JsonPathExpression> arguments, int n) throws ParseException {
         if (arguments.size() != n) {
             throw new ParseException(getName() + " is expecting exactly " + n + " argument" + (n > 1 ? "s" : "")
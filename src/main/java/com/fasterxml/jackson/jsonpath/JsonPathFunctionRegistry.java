@@ -2,7 +2,9 @@ package com.fasterxml.jackson.jsonpath;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Pattern;
 
+import com.fasterxml.jackson.jsonpath.internal.LruCache;
 import com.fasterxml.jackson.jsonpath.internal.func.CharAtJPFP;
 import com.fasterxml.jackson.jsonpath.internal.func.EndsWithJPFP;
 import com.fasterxml.jackson.jsonpath.internal.func.LenJPFP;
@@ -23,6 +25,11 @@ public class JsonPathFunctionRegistry {
 
     private final Map<String, JsonPathFunctionParser> functions = new HashMap<String, JsonPathFunctionParser>();
 
+    public static final int DEFAULT_PATTERN_CACHE_SIZE = 256;
+
+    private volatile LruCache<String, Pattern> patternCache = new LruCache<String, Pattern>(
+            DEFAULT_PATTERN_CACHE_SIZE);
+
     public void registerDefaultFunctions() {
         register(TypeOfJPFP.instance);
         register(PosJPFP.instance);
@@ -42,4 +49,33 @@ public class JsonPathFunctionRegistry {
     public Map<String, JsonPathFunctionParser> getFunctions() {
         return functions;
     }
+
+    /**
+     * @return the compiled regular expression, looked up in the cache of the regular expressions which are not
+     *         literals, shared by the paths parsed with this registry
+     */
+    public Pattern compilePattern(String regexp) {
+        LruCache<String, Pattern> cache = patternCache;
+        Pattern pattern = cache.get(regexp);
+        if (pattern == null) {
+            // an invalid pattern throws before being cached
+            pattern = cache.putIfAbsent(regexp, Pattern.compile(regexp));
+        }
+        return pattern;
+    }
+
+    LruCache<String, Pattern> getPatternCache() {
+        return patternCache;
+    }
+
+    public int getPatternCacheSize() {
+        return patternCache.getMaximumSize();
+    }
+
+    /**
+     * Replace the cache of the regular expressions with an empty one of the given size, zero disabling the caching
+     */
+    public void setPatternCacheSize(int maximumSize) {
+        patternCache = new LruCache<String, Pattern>(maximumSize);
+    }
 }
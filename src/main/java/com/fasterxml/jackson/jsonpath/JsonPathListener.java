@@ -0,0 +1,32 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+/**
+ * Receives the values of paths as soon as they are known, before the end of the evaluation
+ */
+public interface JsonPathListener {
+
+    /**
+     * Called once per path, or again when a value given before the end of the document is replaced by a later
+     * duplicated field, the last value being the one the tree evaluation selects
+     * 
+     * @param index
+     *            the index of the path in the evaluated set, 0 for a single path
+     * @param value
+     *            the value of the path
+     */
+    void onValue(int index, JsonPathValue value);
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+/**
+ * Receives the measures of the compilations and the evaluations of the paths, once registered with
+ * {@link JsonPath#setMetrics(JsonPathMetrics)}. It is called by the thread which compiled or evaluated the path, so it
+ * must be thread safe and cheap. {@link JsonPathStatistics} is an implementation keeping histograms in memory.
+ */
+public interface JsonPathMetrics {
+
+    /**
+     * A path was parsed and compiled
+     */
+    void compiled(String path, long nanos);
+
+    /**
+     * A path was evaluated successfully
+     * 
+     * @param documentSize
+     *            the number of bytes or characters read when the path was evaluated on a raw document, -1 when
+     *            evaluated on a json tree
+     * @param cardinality
+     *            the number of values selected
+     * @param scanned
+     *            the number of elements on which a filter was evaluated
+     * @param functionCalls
+     *            the number of calls to functions
+     */
+    void evaluated(String path, long nanos, long documentSize, int cardinality, long scanned, long functionCalls);
+}
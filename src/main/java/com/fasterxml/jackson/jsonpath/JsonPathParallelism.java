@@ -0,0 +1,67 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Configuration of the parallel evaluation of a path, see {@link JsonPath#withParallelism(JsonPathParallelism)}.
+ * <p>
+ * The filters and the selectors applied on a vector having at least {@link #getThreshold() threshold} elements are
+ * evaluated by chunks in the fork/join pool. The results of the chunks are concatenated in the order of the vector, so
+ * the values, their names and the reported error are the same as with a sequential evaluation. The functions called
+ * in such a path are called concurrently, so they must not keep any state between calls, as the built-in ones.
+ */
+public class JsonPathParallelism {
+
+    public static final int DEFAULT_THRESHOLD = 10000;
+
+    private final ForkJoinPool pool;
+
+    private final int threshold;
+
+    public JsonPathParallelism(ForkJoinPool pool) {
+        this(pool, DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * @param threshold
+     *            the minimum number of elements of a vector for it to be evaluated in parallel, which is also the
+     *            minimum size of a chunk
+     */
+    public JsonPathParallelism(ForkJoinPool pool, int threshold) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool can not be null");
+        }
+        if (threshold < 1) {
+            throw new IllegalArgumentException("threshold must be positive");
+        }
+        this.pool = pool;
+        this.threshold = threshold;
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonPathParallelism[parallelism=" + pool.getParallelism() + ", threshold=" + threshold + "]";
+    }
+}
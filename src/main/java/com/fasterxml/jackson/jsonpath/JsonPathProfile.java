@@ -0,0 +1,175 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The measures of an evaluation, as returned by {@link JsonPath#profile(JsonNode)}: a tree of operators mirroring the
+ * tree of the evaluated expression, each one with the measures of all its invocations, its children included.
+ */
+public class JsonPathProfile {
+
+    private final String type;
+
+    private final String operator;
+
+    private final int position;
+
+    private final long invocations;
+
+    private final long outputCardinality;
+
+    private final long nanos;
+
+    private final long allocatedBytes;
+
+    private final List<JsonPathProfile> children;
+
+    public JsonPathProfile(String type, String operator, int position, long invocations, long outputCardinality,
+            long nanos, long allocatedBytes, List<JsonPathProfile> children) {
+        this.type = type;
+        this.operator = operator;
+        this.position = position;
+        this.invocations = invocations;
+        this.outputCardinality = outputCardinality;
+        this.nanos = nanos;
+        this.allocatedBytes = allocatedBytes;
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * @return the kind of operator, like <code>Filter</code> or <code>FunctionCall</code>
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * @return the expression evaluated by the operator
+     */
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * @return the position of the operator in the path
+     */
+    public int getPosition() {
+        return position;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * @return the number of values given by the children to the operator, over all its invocations
+     */
+    public long getInputCardinality() {
+        long n = 0;
+        for (JsonPathProfile child : children) {
+            n += child.outputCardinality;
+        }
+        return n;
+    }
+
+    /**
+     * @return the number of values returned by the operator, over all its invocations
+     */
+    public long getOutputCardinality() {
+        return outputCardinality;
+    }
+
+    /**
+     * @return the wall time spent in the operator, its children included
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the wall time spent in the operator, its children excluded
+     */
+    public long getSelfNanos() {
+        long self = nanos;
+        for (JsonPathProfile child : children) {
+            self -= child.nanos;
+        }
+        return Math.max(0, self);
+    }
+
+    /**
+     * @return the bytes allocated by the operator, its children included, -1 if the JVM doesn't measure them
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public List<JsonPathProfile> getChildren() {
+        return children;
+    }
+
+    public JsonNode toJson() {
+        ObjectNode json = JsonNodeFactory.instance.objectNode();
+        json.put("type", type);
+        json.put("operator", operator);
+        json.put("position", position);
+        json.put("invocations", invocations);
+        json.put("inputCardinality", getInputCardinality());
+        json.put("outputCardinality", outputCardinality);
+        json.put("nanos", nanos);
+        json.put("selfNanos", getSelfNanos());
+        json.put("allocatedBytes", allocatedBytes);
+        ArrayNode jsonChildren = json.putArray("children");
+        for (JsonPathProfile child : children) {
+            jsonChildren.add(child.toJson());
+        }
+        return json;
+    }
+
+    /**
+     * @return the tree of operators, one per line, indented by depth
+     */
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder();
+        append(buffer, 0);
+        return buffer.toString();
+    }
+
+    private void append(StringBuilder buffer, int depth) {
+        for (int i = 0; i < depth; i++) {
+            buffer.append("  ");
+        }
+        buffer.append(type).append(' ').append(operator).append(" (at ").append(position).append(')');
+        buffer.append(String.format(Locale.ROOT, ": calls=%d in=%d out=%d time=%.3fms self=%.3fms", invocations,
+                getInputCardinality(), outputCardinality, nanos / 1e6, getSelfNanos() / 1e6));
+        if (allocatedBytes >= 0) {
+            buffer.append(" alloc=").append(allocatedBytes).append('B');
+        }
+        buffer.append('\n');
+        for (JsonPathProfile child : children) {
+            child.append(buffer, depth + 1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import com.fasterxml.jackson.core.JsonParser;
+
+/**
+ * Iteration on the values of a path evaluated on each json value of a sequence, like the lines of a newline delimited
+ * json input, the values being read one after the other by the same parser.
+ * <p>
+ * The parser is closed once the last value is read, or on the first error. An error while reading the input is
+ * thrown as an {@link IllegalStateException} caused by the {@link IOException}.
+ */
+class JsonPathSequence implements Iterator<JsonPathValue> {
+
+    private final JsonPath path;
+
+    private final JsonParser parser;
+
+    // whether the parser is on the first token of the next value
+    private boolean ready;
+
+    private boolean closed;
+
+    JsonPathSequence(JsonPath path, JsonParser parser) {
+        this.path = path;
+        this.parser = parser;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!ready && !closed) {
+            try {
+                if (parser.nextToken() == null) {
+                    close();
+                } else {
+                    ready = true;
+                }
+            } catch (IOException e) {
+                throw failure(e);
+            }
+        }
+        return ready;
+    }
+
+    @Override
+    public JsonPathValue next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        ready = false;
+        try {
+            return path.evalStreaming(parser);
+        } catch (IOException e) {
+            throw failure(e);
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    private void close() throws IOException {
+        closed = true;
+        parser.close();
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            // the error being reported is the one which occurred first
+        }
+    }
+
+    private IllegalStateException failure(IOException e) {
+        closeQuietly();
+        return new IllegalStateException("error while reading the sequence of json values", e);
+    }
+}
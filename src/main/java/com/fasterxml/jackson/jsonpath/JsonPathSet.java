@@ -0,0 +1,187 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathSetEvaluator;
+
+/**
+ * A set of paths evaluated together, in a single pass over the json document.
+ * <p>
+ * The selectors the paths have in common at their start (like <code>$.payload.items[*]</code> in
+ * <code>$.payload.items[*].id</code> and <code>$.payload.items[*].price</code>) are evaluated only once. The values
+ * are returned in the order in which the paths were given. If the evaluation of some paths fails, the error of the
+ * first failing path is thrown.
+ */
+public class JsonPathSet {
+
+    private ObjectMapper jsonMapper = new ObjectMapper();
+
+    private List<JsonPath> paths;
+
+    private JsonPathSetEvaluator evaluator;
+
+    public JsonPathSet(JsonPath... paths) {
+        this(Arrays.asList(paths));
+    }
+
+    public JsonPathSet(List<JsonPath> paths) {
+        this.paths = Collections.unmodifiableList(new ArrayList<JsonPath>(paths));
+        List<JsonPathExpression> exprs = new ArrayList<JsonPathExpression>(paths.size());
+        List<CompileMode> compileModes = new ArrayList<CompileMode>(paths.size());
+        List<JsonPathParallelism> parallelisms = new ArrayList<JsonPathParallelism>(paths.size());
+        for (JsonPath path : this.paths) {
+            exprs.add(path.getExpression());
+            compileModes.add(path.getCompileMode());
+            parallelisms.add(path.getParallelism());
+        }
+        this.evaluator = new JsonPathSetEvaluator(exprs, compileModes, parallelisms, jsonMapper);
+    }
+
+    public List<JsonPath> getPaths() {
+        return paths;
+    }
+
+    public List<JsonPathValue> eval(JsonNode node) {
+        if (node == null) {
+            throw new NullPointerException();
+        }
+        return evaluator.eval(node);
+    }
+
+    /**
+     * Evaluate the paths on a graph of java objects, the maps, the collections, the arrays and the beans being
+     * navigated as json containers, and only the visited values being converted to json nodes
+     */
+    public List<JsonPathValue> evalObject(Object value) {
+        return eval(JsonPath.javaNodes.wrap(value));
+    }
+
+    public List<JsonPathValue> eval(String json) throws JsonProcessingException, IOException {
+        return evalAndClose(jsonMapper.getFactory().createParser(json));
+    }
+
+    public List<JsonPathValue> eval(URL jsonURL) throws IOException {
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonURL));
+    }
+
+    public List<JsonPathValue> eval(File jsonFile) throws IOException {
+        if (!jsonFile.exists()) {
+            throw new IllegalArgumentException("json file does not exist");
+        }
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonFile));
+    }
+
+    /**
+     * Evaluate the paths on a file mapped in memory rather than read through a buffered stream, which suits the files of
+     * several gigabytes. As with the other inputs, the json tree is only built for the values the paths select when
+     * they can be evaluated while streaming.
+     */
+    public List<JsonPathValue> evalMapped(File jsonFile) throws IOException {
+        if (!jsonFile.exists()) {
+            throw new IllegalArgumentException("json file does not exist");
+        }
+        return evalAndClose(jsonMapper.getFactory().createParser(new MappedFileInputStream(jsonFile)));
+    }
+
+    public List<JsonPathValue> eval(InputStream jsonInputStream) throws IOException {
+        if (jsonInputStream == null) {
+            throw new IllegalArgumentException("json input stream can not be null");
+        }
+        return evalAndClose(jsonMapper.getFactory().createParser(jsonInputStream));
+    }
+
+    /**
+     * Evaluate the paths on a document read by the factory, which may be of any format Jackson has a parser for, such as
+     * Smile or CBOR. The paths are matched on the tokens as for json text.
+     */
+    public List<JsonPathValue> eval(File file, JsonFactory factory) throws IOException {
+        if (!file.exists()) {
+            throw new IllegalArgumentException("file does not exist");
+        }
+        return evalAndClose(factory.createParser(file));
+    }
+
+    public List<JsonPathValue> eval(InputStream inputStream, JsonFactory factory) throws IOException {
+        if (inputStream == null) {
+            throw new IllegalArgumentException("input stream can not be null");
+        }
+        return evalAndClose(factory.createParser(inputStream));
+    }
+
+    /**
+     * Evaluate the paths on the next json value read from the parser, without building the whole json tree when the
+     * paths allow it. The parser is left on the last token of the value.
+     */
+    public List<JsonPathValue> evalStreaming(JsonParser parser) throws IOException {
+        if (parser == null) {
+            throw new IllegalArgumentException("json parser can not be null");
+        }
+        if (!parser.hasCurrentToken() && parser.nextToken() == null) {
+            throw JsonMappingException.from(parser, "No content to map due to end-of-input");
+        }
+        return evaluator.eval(parser);
+    }
+
+    /**
+     * Start an incremental evaluation of the paths on a json document to be given in chunks, the tokens being read by a
+     * task of the executor as the chunks arrive. The paths only made of field names and indexes are given to the
+     * listener as soon as the value they select is read, without waiting for the rest of the document.
+     * 
+     * @param listener
+     *            the listener of the values, or <code>null</code>
+     */
+    public JsonPathFeed feed(JsonPathListener listener, Executor executor) {
+        return new JsonPathFeed(evaluator, jsonMapper.getFactory(), listener, executor);
+    }
+
+    private List<JsonPathValue> evalAndClose(JsonParser parser) throws IOException {
+        try {
+            return evalStreaming(parser);
+        } finally {
+            parser.close();
+        }
+    }
+
+    public static JsonPathSet compile(String... paths) throws ParseException {
+        return compile(JsonPathFunctionRegistry.DEFAULT, paths);
+    }
+
+    public static JsonPathSet compile(JsonPathFunctionRegistry functionRegistry, String... paths)
+            throws ParseException {
+        List<JsonPath> compiled = new ArrayList<JsonPath>(paths.length);
+        for (String path : paths) {
+            compiled.add(JsonPath.compile(path, functionRegistry));
+        }
+        return new JsonPathSet(compiled);
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.fasterxml.jackson.jsonpath.internal.LruCache;
+
+/**
+ * Metrics keeping in memory, for each path, the histograms of its compilations and evaluations.
+ * <p>
+ * The number of measured paths is bounded: when a new path comes in beyond the maximum, the statistics of the least
+ * recently measured path are dropped, so that paths built from the user input cannot exhaust the memory.
+ */
+public class JsonPathStatistics implements JsonPathMetrics {
+
+    public static final int DEFAULT_MAXIMUM_PATHS = 1024;
+
+    private final LruCache<String, PathStatistics> paths;
+
+    public JsonPathStatistics() {
+        this(DEFAULT_MAXIMUM_PATHS);
+    }
+
+    /**
+     * @param maximumPaths
+     *            the maximum number of paths to keep the statistics of, zero keeping none
+     */
+    public JsonPathStatistics(int maximumPaths) {
+        paths = new LruCache<String, PathStatistics>(maximumPaths);
+    }
+
+    @Override
+    public void compiled(String path, long nanos) {
+        get(path).compileNanos.record(nanos);
+    }
+
+    @Override
+    public void evaluated(String path, long nanos, long documentSize, int cardinality, long scanned,
+            long functionCalls) {
+        PathStatistics statistics = get(path);
+        statistics.evalNanos.record(nanos);
+        statistics.documentSize.record(documentSize);
+        statistics.cardinality.record(cardinality);
+        statistics.scanned.record(scanned);
+        statistics.functionCalls.record(functionCalls);
+    }
+
+    private PathStatistics get(String path) {
+        PathStatistics statistics = paths.get(path);
+        if (statistics == null) {
+            statistics = new PathStatistics();
+            PathStatistics previous = paths.putIfAbsent(path, statistics);
+            if (previous != null) {
+                statistics = previous;
+            }
+        }
+        return statistics;
+    }
+
+    /**
+     * @return the statistics of the path, null if it was neither compiled nor evaluated, or was evicted since
+     */
+    public PathStatistics getStatistics(String path) {
+        return paths.get(path);
+    }
+
+    /**
+     * @return the statistics of every measured path still kept, a snapshot
+     */
+    public Map<String, PathStatistics> getStatistics() {
+        return Collections.unmodifiableMap(paths.snapshot());
+    }
+
+    public int getMaximumPaths() {
+        return paths.getMaximumSize();
+    }
+
+    public void clear() {
+        paths.clear();
+    }
+
+    public static class PathStatistics {
+
+        private final JsonPathHistogram compileNanos = new JsonPathHistogram();
+
+        private final JsonPathHistogram evalNanos = new JsonPathHistogram();
+
+        private final JsonPathHistogram documentSize = new JsonPathHistogram();
+
+        private final JsonPathHistogram cardinality = new JsonPathHistogram();
+
+        private final JsonPathHistogram scanned = new JsonPathHistogram();
+
+        private final JsonPathHistogram functionCalls = new JsonPathHistogram();
+
+        public JsonPathHistogram getCompileNanos() {
+            return compileNanos;
+        }
+
+        public JsonPathHistogram getEvalNanos() {
+            return evalNanos;
+        }
+
+        /**
+         * @return the sizes of the raw documents, the evaluations on json trees not being recorded
+         */
+        public JsonPathHistogram getDocumentSize() {
+            return documentSize;
+        }
+
+        public JsonPathHistogram getCardinality() {
+            return cardinality;
+        }
+
+        public JsonPathHistogram getScanned() {
+            return scanned;
+        }
+
+        public JsonPathHistogram getFunctionCalls() {
+            return functionCalls;
+        }
+
+        @Override
+        public String toString() {
+            return "compile: " + compileNanos + ", eval: " + evalNanos + ", document size: " + documentSize
+                    + ", cardinality: " + cardinality + ", scanned: " + scanned + ", function calls: "
+                    + functionCalls;
+        }
+    }
+}
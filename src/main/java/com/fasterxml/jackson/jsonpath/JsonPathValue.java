@@ -14,16 +14,92 @@
  */
 package com.fasterxml.jackson.jsonpath;
 
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.POJONode;
 
 public abstract class JsonPathValue {
 
+    // writes the POJOs to the generators without a codec
+    private static final ObjectWriter POJO_WRITER = new ObjectMapper().writer().without(
+            SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
     public abstract void addTo(JsonPathVectorValue value);
 
     public abstract JsonNode asNode();
 
     public abstract Iterable<JsonNode> getNodes();
 
+    /**
+     * Writes the value to the generator, a missing value being written as nothing
+     */
+    public void writeTo(JsonGenerator generator) throws IOException {
+        JsonNode node = asNode();
+        if (!node.isMissingNode()) {
+            write(node, generator);
+        }
+    }
+
+    /**
+     * Writes the node without a serializer provider, so without requiring the generator to have a codec nor flushing
+     * it after each node as the codec would do. Only the POJOs need an object mapper: they are serialized with the
+     * codec of the generator, or with a default mapper if the generator has none.
+     */
+    static void write(JsonNode node, JsonGenerator generator) throws IOException {
+        switch (node.getNodeType()) {
+        case OBJECT:
+            generator.writeStartObject();
+            for (Iterator<Entry<String, JsonNode>> fields = node.fields(); fields.hasNext();) {
+                Entry<String, JsonNode> field = fields.next();
+                generator.writeFieldName(field.getKey());
+                write(field.getValue(), generator);
+            }
+            generator.writeEndObject();
+            break;
+        case ARRAY:
+            generator.writeStartArray();
+            for (JsonNode element : node) {
+                write(element, generator);
+            }
+            generator.writeEndArray();
+            break;
+        case STRING:
+            generator.writeString(node.textValue());
+            break;
+        case BOOLEAN:
+            generator.writeBoolean(node.booleanValue());
+            break;
+        case NULL:
+            generator.writeNull();
+            break;
+        case BINARY:
+            generator.writeBinary(node.binaryValue());
+            break;
+        case POJO:
+            Object pojo = ((POJONode) node).getPojo();
+            if (generator.getCodec() != null) {
+                generator.writeObject(pojo);
+            } else {
+                POJO_WRITER.writeValue(generator, pojo);
+            }
+            break;
+        case NUMBER:
+            // the numeric nodes write themselves with the generator only
+            ((JsonSerializable) node).serialize(generator, null);
+            break;
+        default:
+            // missing, nothing to write
+        }
+    }
+
     @Override
     public String toString() {
         return asNode().toString();
@@ -14,48 +14,179 @@
  */
 package com.fasterxml.jackson.jsonpath;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.io.IOException;
+import java.util.Arrays;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 
+/**
+ * A list of named nodes.
+ * <p>
+ * The nodes are kept in compact arrays, or are just a view on the elements of a json array when the vector is built
+ * with {@link #elementsOf(JsonNode)}. The vector is turned into an {@link ArrayNode} only when {@link #asNode()} is
+ * called.
+ */
 public class JsonPathVectorValue extends JsonPathValue {
 
     public static final JsonPathVectorValue EMPTY = new JsonPathVectorValue();
 
-    private ArrayNode nodes = JsonNodeFactory.instance.arrayNode();
+    private static final JsonNode[] NO_NODES = new JsonNode[0];
+
+    private static final String[] NO_NAMES = new String[0];
+
+    // when not null, the vector is a view on the elements of that array, named by their index
+    private JsonNode elements;
+
+    private JsonNode[] nodes;
+
+    private String[] names;
+
+    private int size;
 
-    private List<String> names = new ArrayList<String>();
+    private ArrayNode arrayNode;
+
+    public JsonPathVectorValue() {
+        this(0);
+    }
+
+    public JsonPathVectorValue(int capacity) {
+        nodes = capacity == 0 ? NO_NODES : new JsonNode[capacity];
+        names = capacity == 0 ? NO_NAMES : new String[capacity];
+    }
+
+    /**
+     * @return a vector of the elements of the json array, named by their index, which doesn't copy them
+     */
+    public static JsonPathVectorValue elementsOf(JsonNode array) {
+        if (!array.isArray()) {
+            throw new IllegalArgumentException("not an array: " + array.getNodeType());
+        }
+        JsonPathVectorValue vector = new JsonPathVectorValue();
+        vector.elements = array;
+        return vector;
+    }
 
     @Override
     public void addTo(JsonPathVectorValue ret) {
-        int i = 0;
-        for (JsonNode node : nodes) {
-            ret.add(node, names.get(i++));
+        if (elements != null && ret.elements == null && ret.size == 0 && ret.arrayNode == null) {
+            // share the view rather than copying it
+            ret.elements = elements;
+            return;
+        }
+        int n = size();
+        ret.ensureCapacity(ret.size() + n);
+        for (int i = 0; i < n; i++) {
+            ret.add(get(i), getName(i));
         }
     }
 
     public void add(JsonNode node, String name) {
         if (!node.isMissingNode()) {
-            nodes.add(node);
-            names.add(name);
+            if (elements != null) {
+                copyElements();
+            }
+            ensureCapacity(size + 1);
+            nodes[size] = node;
+            names[size] = name;
+            size++;
+            if (arrayNode != null) {
+                arrayNode.add(node);
+            }
+        }
+    }
+
+    private void copyElements() {
+        JsonNode array = elements;
+        elements = null;
+        ensureCapacity(array.size());
+        for (int i = 0; i < array.size(); i++) {
+            nodes[i] = array.get(i);
+            names[i] = Integer.toString(i);
+        }
+        size = array.size();
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (elements != null) {
+            copyElements();
+        }
+        if (capacity > nodes.length) {
+            int newCapacity = Math.max(capacity, Math.max(8, nodes.length + (nodes.length >> 1)));
+            nodes = Arrays.copyOf(nodes, newCapacity);
+            names = Arrays.copyOf(names, newCapacity);
         }
     }
 
+    public int size() {
+        if (elements != null) {
+            return elements.size();
+        }
+        return size;
+    }
+
+    public JsonNode get(int i) {
+        if (elements != null) {
+            return elements.get(i);
+        }
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return nodes[i];
+    }
+
+    public String getName(int i) {
+        if (elements != null) {
+            if (i >= elements.size()) {
+                throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + elements.size());
+            }
+            return Integer.toString(i);
+        }
+        if (i >= size) {
+            throw new IndexOutOfBoundsException("Index: " + i + ", Size: " + size);
+        }
+        return names[i];
+    }
+
     @Override
     public ArrayNode asNode() {
-        return nodes;
+        if (arrayNode == null) {
+            arrayNode = JsonNodeFactory.instance.arrayNode();
+            if (elements instanceof ArrayNode) {
+                arrayNode.addAll((ArrayNode) elements);
+            } else if (elements != null) {
+                for (JsonNode element : elements) {
+                    arrayNode.add(element);
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    arrayNode.add(nodes[i]);
+                }
+            }
+        }
+        return arrayNode;
     }
 
+    /**
+     * Writes the nodes as a json array, without building the {@link ArrayNode}
+     */
     @Override
-    public Iterable<JsonNode> getNodes() {
-        return nodes;
+    public void writeTo(JsonGenerator generator) throws IOException {
+        generator.writeStartArray();
+        int n = size();
+        for (int i = 0; i < n; i++) {
+            write(get(i), generator);
+        }
+        generator.writeEndArray();
     }
 
-    public String getName(int i) {
-        return names.get(i);
+    @Override
+    public Iterable<JsonNode> getNodes() {
+        if (elements != null) {
+            return elements;
+        }
+        return Arrays.asList(nodes).subList(0, size);
     }
-
 }
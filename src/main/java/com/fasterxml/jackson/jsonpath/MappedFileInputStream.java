@@ -0,0 +1,176 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+/**
+ * Input stream reading a file mapped in memory.
+ * <p>
+ * A mapping can't address more than 2 GB, so the file is mapped in chunks, the next chunk being mapped only once the
+ * previous one is read. The reads copy straight from the mapped pages, without a system call per read. The mappings
+ * are released by the garbage collector, the channel being closed with the stream.
+ */
+class MappedFileInputStream extends InputStream {
+
+    static final int DEFAULT_CHUNK_SIZE = 1 << 30;
+
+    private final FileChannel channel;
+
+    // the position in the file after the last byte to read
+    private final long end;
+
+    private final int chunkSize;
+
+    // the position in the file of the first byte of the chunk
+    private long chunkStart;
+
+    private MappedByteBuffer chunk;
+
+    MappedFileInputStream(File file) throws IOException {
+        this(file, DEFAULT_CHUNK_SIZE);
+    }
+
+    MappedFileInputStream(File file, int chunkSize) throws IOException {
+        this(file, 0, -1, chunkSize);
+    }
+
+    /**
+     * @param end
+     *            the position in the file after the last byte to read, -1 to read up to the end of the file
+     */
+    MappedFileInputStream(File file, long start, long end, int chunkSize) throws IOException {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunk size must be positive");
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            this.channel = raf.getChannel();
+            this.end = end < 0 ? channel.size() : Math.min(end, channel.size());
+            this.chunkSize = chunkSize;
+            map(Math.min(start, this.end));
+        } catch (IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a file of lines in parts of about the same size, each part ending after a new line or at the end of the
+     * file.
+     * 
+     * @return the position in the file of the start of each part, followed by the size of the file
+     */
+    static long[] splitLines(File file, int parts) throws IOException {
+        long size = file.length();
+        long[] bounds = new long[parts + 1];
+        int n = 1;
+        for (int i = 1; i < parts; i++) {
+            long position = Math.max(size * i / parts, bounds[n - 1]);
+            InputStream in = new MappedFileInputStream(file, position, -1, DEFAULT_CHUNK_SIZE);
+            try {
+                int b;
+                while ((b = in.read()) >= 0 && b != '\n') {
+                    position++;
+                }
+                if (b >= 0) {
+                    position++;
+                }
+            } finally {
+                in.close();
+            }
+            if (position > bounds[n - 1] && position < size) {
+                bounds[n++] = position;
+            }
+        }
+        bounds[n++] = size;
+        return Arrays.copyOf(bounds, n);
+    }
+
+    private void map(long start) throws IOException {
+        chunkStart = start;
+        chunk = channel.map(MapMode.READ_ONLY, start, Math.min(chunkSize, end - start));
+    }
+
+    /**
+     * @return <code>false</code> if the end of the file is reached
+     */
+    private boolean ensureRemaining() throws IOException {
+        if (chunk.hasRemaining()) {
+            return true;
+        }
+        long next = chunkStart + chunk.capacity();
+        if (next >= end) {
+            return false;
+        }
+        map(next);
+        return true;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        return chunk.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!ensureRemaining()) {
+            return -1;
+        }
+        int n = Math.min(len, chunk.remaining());
+        chunk.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long position = chunkStart + chunk.position();
+        long skipped = Math.min(n, end - position);
+        long target = position + skipped;
+        if (target < chunkStart + chunk.capacity()) {
+            chunk.position((int) (target - chunkStart));
+        } else {
+            // at the end of the file, an empty chunk
+            map(target);
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return (int) Math.min(Integer.MAX_VALUE, end - chunkStart - chunk.position());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -15,6 +15,7 @@
 package com.fasterxml.jackson.jsonpath.internal;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
 class ArithmeticJPE extends JsonPathExpression {
@@ -43,91 +44,92 @@ class ArithmeticJPE extends JsonPathExpression {
         this.right = right;
     }
 
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { left, right };
+    }
+
+    @Override
+    ArithmeticJPE withChildren(JsonPathExpression[] children) {
+        return new ArithmeticJPE(position, op, children[0], children[1]);
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         return evalAsDotProduct(context, left, right);
     }
 
     @Override
-    public Object computeObject(JsonPathContext context, JsonNode[] childValues) {
-        switch (op) {
-        case PLUS: {
-            String s1 = asLenientString(childValues[0]);
-            String s2 = asLenientString(childValues[1]);
+    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
+        JsonNode n1 = childValues[0];
+        JsonNode n2 = childValues[1];
+        if (op == ArithmeticOp.PLUS) {
+            String s1 = asLenientString(n1);
+            String s2 = asLenientString(n2);
             if (s1 != null || s2 != null) {
-                return s1 + s2;
-            }
-            Number n1 = asNumber(childValues[0], "arithmetic op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "arithmetic op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() + n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() + n2.longValue();
+                return JsonNodeFactory.instance.textNode(s1 + s2);
             }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() + n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
-        }
-        case MINUS: {
-            Number n1 = asNumber(childValues[0], "arithmetic op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "arithmetic op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() - n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() - n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() - n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
         }
-        case DIV: {
-            Number n1 = asNumber(childValues[0], "arithmetic op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "arithmetic op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() / n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() / n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() / n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
+        NumberKind kind = numberKind(n1, "arithmetic op '", op.sign);
+        kind = kind.widest(numberKind(n2, "arithmetic op '", op.sign));
+        switch (kind) {
+        case DOUBLE:
+            return JsonNodeFactory.instance.numberNode(compute(n1.asDouble(), n2.asDouble()));
+        case LONG:
+            return JsonNodeFactory.instance.numberNode(compute(n1.asLong(), n2.asLong()));
+        case INT:
+            return JsonNodeUtil.intNode(compute(n1.asInt(), n2.asInt()));
+        default:
+            throw new IllegalStateException("unsupported number kind " + kind);
         }
-        case MULT: {
-            Number n1 = asNumber(childValues[0], "arithmetic op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "arithmetic op '", op.sign, "'");
+    }
 
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() * n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() * n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() * n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
+    private double compute(double d1, double d2) {
+        switch (op) {
+        case PLUS:
+            return d1 + d2;
+        case MINUS:
+            return d1 - d2;
+        case MULT:
+            return d1 * d2;
+        case DIV:
+            return d1 / d2;
+        case MODULO:
+            return d1 % d2;
+        default:
+            throw new IllegalStateException("illegal operator " + op.sign);
         }
-        case MODULO: {
-            Number n1 = asNumber(childValues[0], "arithmetic op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "arithmetic op '", op.sign, "'");
+    }
 
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() % n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() % n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() % n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
+    private long compute(long l1, long l2) {
+        switch (op) {
+        case PLUS:
+            return l1 + l2;
+        case MINUS:
+            return l1 - l2;
+        case MULT:
+            return l1 * l2;
+        case DIV:
+            return l1 / l2;
+        case MODULO:
+            return l1 % l2;
+        default:
+            throw new IllegalStateException("illegal operator " + op.sign);
         }
+    }
+
+    private int compute(int i1, int i2) {
+        switch (op) {
+        case PLUS:
+            return i1 + i2;
+        case MINUS:
+            return i1 - i2;
+        case MULT:
+            return i1 * i2;
+        case DIV:
+            return i1 / i2;
+        case MODULO:
+            return i1 % i2;
         default:
             throw new IllegalStateException("illegal operator " + op.sign);
         }
@@ -42,6 +42,16 @@ class BitwiseJPE extends JsonPathExpression {
         this.right = right;
     }
 
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { left, right };
+    }
+
+    @Override
+    BitwiseJPE withChildren(JsonPathExpression[] children) {
+        return new BitwiseJPE(position, op, children[0], children[1]);
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         return evalAsDotProduct(context, left, right);
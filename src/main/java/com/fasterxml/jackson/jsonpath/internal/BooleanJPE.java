@@ -44,6 +44,20 @@ class BooleanJPE extends JsonPathExpression {
         this.right = right;
     }
 
+    BooleanOp getOp() {
+        return op;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { left, right };
+    }
+
+    @Override
+    BooleanJPE withChildren(JsonPathExpression[] children) {
+        return new BooleanJPE(position, op, children[0], children[1]);
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         if (!isVector()) {
@@ -54,6 +68,14 @@ class BooleanJPE extends JsonPathExpression {
         return evalAsDotProduct(context, left, right);
     }
 
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        if (!isVector()) {
+            return JsonNodeFactory.instance.booleanNode(computePartial(context));
+        }
+        return super.evalNode(context);
+    }
+
     private boolean computePartial(JsonPathContext context) {
         boolean b1 = left.evalAsBoolean(context);
         switch (op) {
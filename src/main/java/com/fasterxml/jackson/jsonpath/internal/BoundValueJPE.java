@@ -0,0 +1,57 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.JsonPathParallelism;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Placeholder for the part of an expression which has already been evaluated by other means, the computed value
+ * being handed over through the context created by {@link #bind(JsonNode, JsonPathValue, JsonPathParallelism)}.
+ */
+class BoundValueJPE extends JsonPathExpression {
+
+    private JsonPathExpression replaced;
+
+    BoundValueJPE(JsonPathExpression replaced) {
+        super(replaced.position, replaced.isVector());
+        this.replaced = replaced;
+    }
+
+    static JsonPathContext bind(JsonNode root, JsonPathValue value, JsonPathParallelism parallelism) {
+        return new BoundContext(root, value, parallelism);
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context) {
+        return ((BoundContext) context).value;
+    }
+
+    @Override
+    public String toString() {
+        return replaced.toString();
+    }
+
+    private static class BoundContext extends JsonPathContext {
+
+        private JsonPathValue value;
+
+        BoundContext(JsonNode root, JsonPathValue value, JsonPathParallelism parallelism) {
+            super(root, parallelism);
+            this.value = value;
+        }
+    }
+}
@@ -16,9 +16,21 @@ package com.fasterxml.jackson.jsonpath.internal;
 
 import java.text.ParseException;
 
+/**
+ * The characters of the path being parsed, with a cursor on the last read one.
+ * <p>
+ * The characters are read as primitive chars, {@link #EOI} being returned past the end of the input, so that
+ * looking ahead doesn't box anything and the lookahead of the parser can be compared directly against the characters
+ * of the tokens.
+ */
 class Buffer {
 
-    private char[] input;
+    /**
+     * The character read past the end of the input. It is a noncharacter of Unicode, it doesn't match any token
+     */
+    static final char EOI = '\uFFFF';
+
+    private final char[] input;
 
     int pos = -1;
 
@@ -26,28 +38,25 @@ class Buffer {
         this.input = input.toCharArray();
     }
 
-    Character readAhead() {
-        return readAhead(1);
+    char readAhead() {
+        int i = pos + 1;
+        return i < input.length ? input[i] : EOI;
     }
 
-    Character readAhead(int n) {
-        if (pos + n >= input.length) {
-            return null;
-        }
-        return input[pos + n];
+    char readAhead(int n) {
+        int i = pos + n;
+        return i < input.length ? input[i] : EOI;
     }
 
-    Character read() {
-        Character c = readAhead();
-        if (c == null) {
-            return null;
+    char read() {
+        if (pos + 1 >= input.length) {
+            return EOI;
         }
-        pos++;
-        return c;
+        return input[++pos];
     }
 
     void skip() {
-        skip(1);
+        pos++;
     }
 
     void skip(int n) {
@@ -55,36 +64,18 @@ class Buffer {
     }
 
     void skipWhiteSpace() {
-        Character c = null;
-        while ((c = readAhead()) != null) {
-            if (c != ' ' && c != '\t') {
-                return;
-            }
-            skip();
+        int i = pos + 1;
+        while (i < input.length && (input[i] == ' ' || input[i] == '\t')) {
+            i++;
         }
-    }
-
-    char readAheadNotEnd(String name) throws ParseException {
-        Character c = readAhead();
-        if (c == null) {
-            throw new ParseException("Unexpected end of input in " + name, pos);
-        }
-        return c;
-    }
-
-    char readNotEnd(String name) throws ParseException {
-        Character c = read();
-        if (c == null) {
-            throw new ParseException("Unexpected end of input in " + name, pos);
-        }
-        return c;
+        pos = i - 1;
     }
 
     void readExpected(char expected, String name) throws ParseException {
-        Character c = read();
-        if (c == null) {
+        if (isConsumed()) {
             throw new ParseException("Unexpected end of input in " + name, pos);
         }
+        char c = input[++pos];
         if (c != expected) {
             throw new ParseException("Expecting '" + expected + "' but found '" + c + "' in " + name, pos);
         }
@@ -94,4 +85,11 @@ class Buffer {
         return pos >= input.length - 1;
     }
 
+    /**
+     * @return the characters from start, inclusive, to end, exclusive
+     */
+    String substring(int start, int end) {
+        return new String(input, start, end - start);
+    }
+
 }
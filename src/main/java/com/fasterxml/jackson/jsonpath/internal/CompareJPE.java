@@ -17,6 +17,7 @@ package com.fasterxml.jackson.jsonpath.internal;
 import java.text.ParseException;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
 class CompareJPE extends JsonPathExpression {
@@ -64,74 +65,89 @@ class CompareJPE extends JsonPathExpression {
         }
     }
 
+    CompareOp getOp() {
+        return op;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { left, right };
+    }
+
+    @Override
+    CompareJPE withChildren(JsonPathExpression[] children) {
+        try {
+            return new CompareJPE(position, op, children[0], children[1]);
+        } catch (ParseException e) {
+            throw new IllegalStateException("the dimension of the children has changed", e);
+        }
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         return evalAsDotProduct(context, left, right);
     }
 
     @Override
-    Object computeObject(JsonPathContext context, JsonNode[] childValues) {
+    JsonNode evalNode(JsonPathContext context) {
+        if (!isVector()) {
+            return JsonNodeFactory.instance.booleanNode(compare(left.evalNode(context), right.evalNode(context)));
+        }
+        return super.evalNode(context);
+    }
+
+    @Override
+    boolean evalAsBoolean(JsonPathContext context) {
+        if (!isVector()) {
+            return compare(left.evalNode(context), right.evalNode(context));
+        }
+        return super.evalAsBoolean(context);
+    }
+
+    @Override
+    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
+        return JsonNodeFactory.instance.booleanNode(compare(childValues[0], childValues[1]));
+    }
+
+    private boolean compare(JsonNode n1, JsonNode n2) {
         switch (op) {
         case EQ:
-            return childValues[0].equals(childValues[1]);
+            return n1.equals(n2);
         case NE:
-            return !childValues[0].equals(childValues[1]);
-        case GE: {
-            Number n1 = asNumber(childValues[0], "compare op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "compare op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() >= n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() >= n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() >= n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
-        }
-        case GT: {
-            Number n1 = asNumber(childValues[0], "compare op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "compare op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() > n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() > n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() > n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
-        }
-        case LE: {
-            Number n1 = asNumber(childValues[0], "compare op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "compare op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.doubleValue() <= n2.doubleValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() <= n2.longValue();
-            }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() <= n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
+            return !n1.equals(n2);
+        default:
+            break;
         }
-        case LT: {
-            Number n1 = asNumber(childValues[0], "compare op '", op.sign, "'");
-            Number n2 = asNumber(childValues[1], "compare op '", op.sign, "'");
-            if (n1 instanceof Double || n2 instanceof Double) {
-                return n1.intValue() < n2.intValue();
-            }
-            if (n1 instanceof Long || n2 instanceof Long) {
-                return n1.longValue() < n2.longValue();
+        NumberKind kind = numberKind(n1, "compare op '", op.sign);
+        kind = kind.widest(numberKind(n2, "compare op '", op.sign));
+        if (kind == NumberKind.DOUBLE) {
+            double d1 = n1.asDouble();
+            double d2 = n2.asDouble();
+            switch (op) {
+            case GE:
+                return d1 >= d2;
+            case GT:
+                return d1 > d2;
+            case LE:
+                return d1 <= d2;
+            case LT:
+                return d1 < d2;
+            default:
+                throw new IllegalStateException("unsupported op " + op);
             }
-            if (n1 instanceof Integer || n2 instanceof Integer) {
-                return n1.intValue() < n2.intValue();
-            }
-            throw new IllegalStateException("unsupported number type " + n1.getClass() + " and/or " + n2.getClass());
         }
+        // the ints are compared as longs, which is the same
+        long l1 = n1.asLong();
+        long l2 = n2.asLong();
+        switch (op) {
+        case GE:
+            return l1 >= l2;
+        case GT:
+            return l1 > l2;
+        case LE:
+            return l1 <= l2;
+        case LT:
+            return l1 < l2;
         default:
             throw new IllegalStateException("unsupported op " + op);
         }
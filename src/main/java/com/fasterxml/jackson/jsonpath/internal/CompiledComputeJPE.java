@@ -0,0 +1,62 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compiled form of an operator on single values: the children are evaluated as nodes and directly given to the
+ * operator, without the dot product machinery.
+ */
+class CompiledComputeJPE extends CompiledJPE {
+
+    private JsonPathExpression operator;
+
+    private JsonPathExpression[] children;
+
+    CompiledComputeJPE(JsonPathExpression operator) {
+        super(operator.position);
+        this.operator = operator;
+        this.children = operator.getChildren();
+    }
+
+    JsonPathExpression getOperator() {
+        return operator;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return children.clone();
+    }
+
+    @Override
+    CompiledComputeJPE withChildren(JsonPathExpression[] newChildren) {
+        return new CompiledComputeJPE(operator.withChildren(newChildren));
+    }
+
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        JsonNode[] nodes = new JsonNode[children.length];
+        for (int i = 0; i < children.length; i++) {
+            nodes[i] = children[i].evalNode(context);
+        }
+        return operator.computeNode(context, nodes);
+    }
+
+    @Override
+    public String toString() {
+        return operator.toString();
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.JsonPathSingleValue;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Expression produced by the {@link JsonPathCompiler}, computing a single node directly from the nodes of its
+ * children.
+ */
+abstract class CompiledJPE extends JsonPathExpression {
+
+    CompiledJPE(int position) {
+        super(position, false);
+    }
+
+    @Override
+    public final JsonPathValue eval(JsonPathContext context) {
+        JsonNode node = evalNode(context);
+        if (node.isMissingNode()) {
+            return JsonPathSingleValue.EMPTY;
+        }
+        return new JsonPathSingleValue(node);
+    }
+
+    @Override
+    abstract JsonNode evalNode(JsonPathContext context);
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * Compiled form of a chain of selectors on single values, like <code>$.store.book[0]</code>: the selections are
+ * done one after the other on the node of the object of the chain.
+ */
+class CompiledSelectorChainJPE extends CompiledJPE {
+
+    private JsonPathExpression object;
+
+    private NodeSelectorJPE[] selectors;
+
+    CompiledSelectorChainJPE(JsonPathExpression object, NodeSelectorJPE[] selectors) {
+        super(selectors[selectors.length - 1].position);
+        this.object = object;
+        this.selectors = selectors;
+    }
+
+    /**
+     * @return a chain applying one more selector
+     */
+    CompiledSelectorChainJPE append(NodeSelectorJPE selector) {
+        NodeSelectorJPE[] newSelectors = new NodeSelectorJPE[selectors.length + 1];
+        System.arraycopy(selectors, 0, newSelectors, 0, selectors.length);
+        newSelectors[selectors.length] = selector;
+        return new CompiledSelectorChainJPE(object, newSelectors);
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        List<JsonPathExpression> children = new ArrayList<JsonPathExpression>();
+        children.add(object);
+        for (NodeSelectorJPE selector : selectors) {
+            if (selector instanceof FieldSelectorJPE) {
+                children.add(((FieldSelectorJPE) selector).getIndex());
+            }
+        }
+        return children.toArray(new JsonPathExpression[children.size()]);
+    }
+
+    @Override
+    CompiledSelectorChainJPE withChildren(JsonPathExpression[] children) {
+        NodeSelectorJPE[] newSelectors = new NodeSelectorJPE[selectors.length];
+        int n = 1;
+        for (int i = 0; i < selectors.length; i++) {
+            if (selectors[i] instanceof FieldSelectorJPE) {
+                newSelectors[i] = new FieldSelectorJPE(selectors[i].position, selectors[i].getObject(), children[n++]);
+            } else {
+                newSelectors[i] = selectors[i];
+            }
+        }
+        return new CompiledSelectorChainJPE(children[0], newSelectors);
+    }
+
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        JsonNode node = object.evalNode(context);
+        for (NodeSelectorJPE selector : selectors) {
+            node = selector.select(context, node);
+        }
+        return node;
+    }
+
+    @Override
+    public String toString() {
+        return selectors[selectors.length - 1].toString();
+    }
+}
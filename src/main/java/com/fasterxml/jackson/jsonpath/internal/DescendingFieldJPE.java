@@ -0,0 +1,90 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.Iterator;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.jsonpath.IndexedDocument;
+import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+
+/**
+ * Selection of a field in the object and in the objects under it, <code>..*.name</code>, which walks the tree once
+ * rather than selecting the field in a vector of all the containers.
+ */
+class DescendingFieldJPE extends SelectorJPE {
+
+    private String field;
+
+    DescendingFieldJPE(int position, JsonPathExpression object, String field) {
+        super(position, true, object);
+        this.field = field;
+    }
+
+    String getField() {
+        return field;
+    }
+
+    @Override
+    DescendingFieldJPE withObject(JsonPathExpression newObject) {
+        return new DescendingFieldJPE(position, newObject, field);
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context) {
+        return evalAsDotProduct(context, getObject());
+    }
+
+    @Override
+    JsonPathValue compute(JsonPathContext context, JsonNode[] childValues) {
+        return computeFirst(context, childValues[0], Integer.MAX_VALUE);
+    }
+
+    @Override
+    JsonPathValue computeFirst(JsonPathContext context, JsonNode node, int limit) {
+        IndexedDocument index = context.getIndex();
+        if (index != null) {
+            int id = index.indexOfContainer(node);
+            // on an array the selection fails, so let the walk raise the error
+            if (id >= 0 && !index.hasArray(id)) {
+                return first(index.fieldOfDescendants(id, field), limit);
+            }
+        }
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        descend(node, ret, limit);
+        return ret;
+    }
+
+    private void descend(JsonNode node, JsonPathVectorValue result, int limit) {
+        if (node.isContainerNode() && result.size() < limit) {
+            if (!node.isObject()) {
+                throw new JsonPathRuntimeException("field selector must apply on an object, not a "
+                        + node.getNodeType().toString().toLowerCase(), position);
+            }
+            result.add(node.path(field), null);
+            for (Iterator<JsonNode> values = node.elements(); values.hasNext() && result.size() < limit;) {
+                descend(values.next(), result, limit);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getObject().toString() + "..*[(" + TextNode.valueOf(field).toString() + ")]";
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.jsonpath.IndexedDocument;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+import com.fasterxml.jackson.jsonpath.internal.CompareJPE.CompareOp;
+import com.fasterxml.jackson.jsonpath.internal.func.NameJPFP;
+
+/**
+ * Filter on the object and on the containers under it, <code>..*[?(...)]</code>, which applies the predicate while
+ * walking the tree rather than on a vector of all the containers.
+ */
+class DescendingFilterJPE extends FilterJPE {
+
+    // the name the elements are filtered on, looked up in the index of the document
+    private String indexedName;
+
+    DescendingFilterJPE(int position, JsonPathExpression object, JsonPathExpression filter, int invariants) {
+        super(position, true, object, filter, invariants);
+        this.indexedName = nameEquality(filter);
+    }
+
+    /**
+     * @return the name compared in a predicate like <code>name() == 'x'</code>, <code>null</code> for other predicates
+     */
+    private static String nameEquality(JsonPathExpression predicate) {
+        if (predicate instanceof CompiledComputeJPE) {
+            predicate = ((CompiledComputeJPE) predicate).getOperator();
+        }
+        if (!(predicate instanceof CompareJPE) || ((CompareJPE) predicate).getOp() != CompareOp.EQ) {
+            return null;
+        }
+        JsonPathExpression[] operands = predicate.getChildren();
+        for (int i = 0; i < 2; i++) {
+            JsonPathExpression call = operands[i];
+            JsonPathExpression literal = operands[1 - i];
+            if (call instanceof FunctionCallJPE && ((FunctionCallJPE) call).getFunction() == NameJPFP.FUNCTION
+                    && literal instanceof LiteralJPE && ((LiteralJPE) literal).getLiteral().isTextual()) {
+                return ((LiteralJPE) literal).getLiteral().asText();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    DescendingFilterJPE withFilter(JsonPathExpression newFilter, int newInvariants) {
+        return new DescendingFilterJPE(position, getObject(), newFilter, newInvariants);
+    }
+
+    @Override
+    DescendingFilterJPE withObject(JsonPathExpression newObject) {
+        return new DescendingFilterJPE(position, newObject, getFilter(), getInvariants());
+    }
+
+    @Override
+    DescendingFilterJPE withChildren(JsonPathExpression[] children) {
+        return new DescendingFilterJPE(position, children[0], children[1], getInvariants());
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context) {
+        return eval(context, Integer.MAX_VALUE);
+    }
+
+    @Override
+    Values values(JsonPathContext context) {
+        IndexedDocument index = context.getIndex();
+        if (indexedName != null && index != null) {
+            JsonPathValue value = getObject().eval(context);
+            if (!(value instanceof JsonPathVectorValue)) {
+                int id = index.indexOfContainer(value.asNode());
+                if (id >= 0) {
+                    return new VectorValues(index.descendantsNamed(id, indexedName));
+                }
+            }
+            return matching(context, new DescendingJPE.Descendants(new VectorValues(value)));
+        }
+        // the positions are the ones in the concatenation of the descendants of every element
+        return matching(context, new DescendingJPE.Descendants(values(getObject(), context)));
+    }
+
+    @Override
+    public String toString() {
+        return getObject().toString() + "..*[?(" + getFilter().toString() + ")]";
+    }
+}
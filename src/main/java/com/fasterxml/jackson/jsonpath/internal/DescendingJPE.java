@@ -14,52 +14,149 @@
  */
 package com.fasterxml.jackson.jsonpath.internal;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.Map.Entry;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.IndexedDocument;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
-class DescendingJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class DescendingJPE extends SelectorJPE {
 
     DescendingJPE(int position, JsonPathExpression object) {
-        super(position, true);
-        this.object = object;
+        super(position, true, object);
+    }
+
+    @Override
+    DescendingJPE withObject(JsonPathExpression newObject) {
+        return new DescendingJPE(position, newObject);
     }
 
     @Override
     public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+        return evalAsDotProduct(context, getObject());
     }
 
     @Override
     JsonPathValue compute(JsonPathContext context, JsonNode[] childValues) {
+        return computeFirst(context, childValues[0], Integer.MAX_VALUE);
+    }
+
+    @Override
+    JsonPathValue computeFirst(JsonPathContext context, JsonNode node, int limit) {
+        IndexedDocument index = context.getIndex();
+        if (index != null) {
+            int id = index.indexOfContainer(node);
+            if (id >= 0) {
+                return first(index.descendants(id), limit);
+            }
+        }
         JsonPathVectorValue ret = new JsonPathVectorValue();
-        descend(childValues[0], ret, null);
+        descend(node, ret, null, limit);
         return ret;
     }
 
-    private void descend(JsonNode node, JsonPathVectorValue result, String elementName) {
-        if (node.isContainerNode()) {
+    private void descend(JsonNode node, JsonPathVectorValue result, String elementName, int limit) {
+        if (node.isContainerNode() && result.size() < limit) {
             result.add(node, elementName);
             if (node.isArray()) {
-                int n = 0;
-                for (JsonNode value : node) {
-                    descend(value, result, Integer.toString(n++));
+                for (int i = 0; i < node.size() && result.size() < limit; i++) {
+                    descend(node.get(i), result, JsonNodeUtil.indexName(i), limit);
                 }
             } else {
-                for (Iterator<String> fields = node.fieldNames(); fields.hasNext();) {
+                for (Iterator<String> fields = node.fieldNames(); fields.hasNext() && result.size() < limit;) {
                     String field = fields.next();
-                    descend(node.get(field), result, field);
+                    descend(node.get(field), result, field, limit);
                 }
             }
         }
     }
 
+    @Override
+    Values values(JsonPathContext context) {
+        if (context.getIndex() != null) {
+            // the index lists the descendants of a node at once
+            return super.values(context);
+        }
+        return new Descendants(values(getObject(), context));
+    }
+
     @Override
     public String toString() {
-        return object.toString() + "..";
+        return getObject().toString() + "..*";
+    }
+
+    /**
+     * The containers under the values of an object, these values included, walked depth first as they are pulled
+     */
+    static class Descendants extends Values {
+
+        private final Values objects;
+
+        private final ArrayList<Level> levels = new ArrayList<Level>();
+
+        Descendants(Values objects) {
+            this.objects = objects;
+        }
+
+        @Override
+        boolean next() {
+            while (true) {
+                if (levels.isEmpty()) {
+                    if (!objects.next()) {
+                        return false;
+                    }
+                    if (enter(objects.node, null)) {
+                        return true;
+                    }
+                    continue;
+                }
+                Level level = levels.get(levels.size() - 1);
+                if (level.fields != null) {
+                    if (!level.fields.hasNext()) {
+                        levels.remove(levels.size() - 1);
+                    } else {
+                        Entry<String, JsonNode> field = level.fields.next();
+                        if (enter(field.getValue(), field.getKey())) {
+                            return true;
+                        }
+                    }
+                } else if (level.index >= level.container.size()) {
+                    levels.remove(levels.size() - 1);
+                } else {
+                    int i = level.index++;
+                    if (enter(level.container.get(i), JsonNodeUtil.indexName(i))) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        private boolean enter(JsonNode container, String containerName) {
+            if (!container.isContainerNode()) {
+                return false;
+            }
+            node = container;
+            name = containerName;
+            levels.add(new Level(container));
+            return true;
+        }
+    }
+
+    private static class Level {
+
+        private final JsonNode container;
+
+        // the fields of an object, null for an array
+        private final Iterator<Entry<String, JsonNode>> fields;
+
+        private int index;
+
+        Level(JsonNode container) {
+            this.container = container;
+            this.fields = container.isObject() ? container.fields() : null;
+        }
     }
 }
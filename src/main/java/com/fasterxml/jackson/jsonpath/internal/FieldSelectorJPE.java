@@ -18,11 +18,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
-import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
-class FieldSelectorJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class FieldSelectorJPE extends NodeSelectorJPE {
 
     private JsonPathExpression index;
 
@@ -31,26 +28,38 @@ class FieldSelectorJPE extends JsonPathExpression {
     }
 
     FieldSelectorJPE(int position, JsonPathExpression object, JsonPathExpression index) {
-        super(position, object.isVector());
-        this.object = object;
+        super(position, object);
         this.index = index;
     }
 
+    JsonPathExpression getIndex() {
+        return index;
+    }
+
+    @Override
+    FieldSelectorJPE withObject(JsonPathExpression newObject) {
+        return new FieldSelectorJPE(position, newObject, index);
+    }
+
     @Override
-    public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { getObject(), index };
     }
 
     @Override
-    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
-        JsonNode o = childValues[0];
-        JsonNode i = index.eval(context).asNode();
+    FieldSelectorJPE withChildren(JsonPathExpression[] children) {
+        return new FieldSelectorJPE(position, children[0], children[1]);
+    }
+
+    @Override
+    JsonNode select(JsonPathContext context, JsonNode o) {
+        JsonNode i = index.evalNode(context);
         if (i.isTextual()) {
             if (!o.isObject()) {
                 throw new JsonPathRuntimeException("field selector must apply on an object, not a "
                         + o.getNodeType().toString().toLowerCase(), position);
             }
-            return o.path(asString(i, "index of selector"));
+            return o.path(i.asText());
         }
         if (i.isNumber()) {
             if (!o.isArray()) {
@@ -58,11 +67,8 @@ class FieldSelectorJPE extends JsonPathExpression {
                         + o.getNodeType().toString().toLowerCase(), position);
             }
             int n = i.asInt();
-            if (n >= o.size()) {
-                throw new JsonPathRuntimeException("index out of bound " + n + " > " + (o.size() - 1), position);
-            }
-            if (n < -o.size()) {
-                throw new JsonPathRuntimeException("index out of bound " + n + " < " + (-o.size()), position);
+            if (n >= o.size() || n < -o.size()) {
+                throw indexOutOfBound(n, o.size());
             }
             if (n < 0) {
                 return o.get(o.size() + n);
@@ -74,6 +80,6 @@ class FieldSelectorJPE extends JsonPathExpression {
 
     @Override
     public String toString() {
-        return object.toString() + "[(" + index.toString() + ")]";
+        return getObject().toString() + "[(" + index.toString() + ")]";
     }
 }
@@ -19,43 +19,146 @@ import com.fasterxml.jackson.jsonpath.JsonPathSingleValue;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
-class FilterJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class FilterJPE extends SelectorJPE {
 
     private JsonPathExpression filter;
 
+    // the number of InvariantJPE slots used by the filter
+    private int invariants;
+
     FilterJPE(int position, JsonPathExpression object, JsonPathExpression filter) {
-        super(position, object.isVector());
-        this.object = object;
+        this(position, object, filter, 0);
+    }
+
+    FilterJPE(int position, JsonPathExpression object, JsonPathExpression filter, int invariants) {
+        this(position, object.isVector(), object, filter, invariants);
+    }
+
+    FilterJPE(int position, boolean vector, JsonPathExpression object, JsonPathExpression filter, int invariants) {
+        super(position, vector, object);
         this.filter = filter;
+        this.invariants = invariants;
+    }
+
+    JsonPathExpression getFilter() {
+        return filter;
+    }
+
+    int getInvariants() {
+        return invariants;
+    }
+
+    /**
+     * @return the same filter with another predicate, using that number of InvariantJPE slots
+     */
+    FilterJPE withFilter(JsonPathExpression newFilter, int newInvariants) {
+        return new FilterJPE(position, getObject(), newFilter, newInvariants);
+    }
+
+    @Override
+    FilterJPE withObject(JsonPathExpression newObject) {
+        return new FilterJPE(position, newObject, filter, invariants);
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { getObject(), filter };
+    }
+
+    @Override
+    FilterJPE withChildren(JsonPathExpression[] children) {
+        return new FilterJPE(position, children[0], children[1], invariants);
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context, int limit) {
+        if (!isVector()) {
+            return eval(context);
+        }
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        Values values = values(context);
+        while (ret.size() < limit && values.next()) {
+            ret.add(values.node, values.name);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the elements of the object matching the predicate, the object being pulled one element at a time
+     */
+    @Override
+    Values values(JsonPathContext context) {
+        return matching(context, values(getObject(), context));
+    }
+
+    /**
+     * @return the candidates matching the predicate, tested as they are pulled
+     */
+    Values matching(final JsonPathContext context, final Values candidates) {
+        final JsonPathContext frame = context.childFrame();
+        frame.resetInvariants(invariants);
+        return new Values() {
+
+            private int pos;
+
+            @Override
+            boolean next() {
+                while (candidates.next()) {
+                    frame.setElement(candidates.node, pos++, candidates.name);
+                    context.countScanned(1);
+                    if (filter.evalAsBoolean(frame)) {
+                        node = candidates.node;
+                        name = candidates.name;
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
     }
 
     @Override
     public JsonPathValue eval(JsonPathContext context) {
-        JsonPathValue value = object.eval(context);
+        JsonPathValue value = getObject().eval(context);
         if (isVector()) {
-            JsonPathVectorValue ret = new JsonPathVectorValue();
-            int i = 0;
-            for (JsonNode subNode : value.getNodes()) {
-                String name = ((JsonPathVectorValue) value).getName(i);
-                boolean select = filter.evalAsBoolean(new JsonPathContext(context, subNode, i, name));
-                if (select) {
-                    ret.add(subNode, name);
-                }
-                i++;
+            final JsonPathVectorValue vector = (JsonPathVectorValue) value;
+            if (ParallelVectorEvaluation.isParallel(context, vector.size())) {
+                return new ParallelVectorEvaluation(context, vector.size()) {
+                    @Override
+                    JsonPathVectorValue evalChunk(JsonPathContext chunkContext, int start, int end) {
+                        return filter(chunkContext, vector, start, end);
+                    }
+                }.run();
             }
-            return ret;
+            return filter(context, vector, 0, vector.size());
         }
-        boolean select = filter.evalAsBoolean(new JsonPathContext(context, value.asNode(), 0, null));
-        if (select) {
+        JsonPathContext frame = context.childFrame();
+        frame.resetInvariants(invariants);
+        frame.setElement(value.asNode(), 0, (String) null);
+        context.countScanned(1);
+        if (filter.evalAsBoolean(frame)) {
             return value;
         }
         return JsonPathSingleValue.EMPTY;
     }
 
+    private JsonPathVectorValue filter(JsonPathContext context, JsonPathVectorValue vector, int start, int end) {
+        JsonPathContext frame = context.childFrame();
+        frame.resetInvariants(invariants);
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        for (int i = start; i < end; i++) {
+            JsonNode subNode = vector.get(i);
+            frame.setElement(subNode, i, vector);
+            if (filter.evalAsBoolean(frame)) {
+                ret.add(subNode, vector.getName(i));
+            }
+        }
+        context.countScanned(end - start);
+        return ret;
+    }
+
     @Override
     public String toString() {
-        return object.toString() + "[?(" + filter.toString() + ")]";
+        return getObject().toString() + "[?(" + filter.toString() + ")]";
     }
 }
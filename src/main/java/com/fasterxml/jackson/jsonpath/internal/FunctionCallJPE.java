@@ -16,6 +16,8 @@ package com.fasterxml.jackson.jsonpath.internal;
 
 import java.text.ParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -24,22 +26,60 @@ import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
 class FunctionCallJPE extends JsonPathExpression {
 
+    private String name;
+
     private JsonPathFunction function;
 
     private List<JsonPathExpression> arguments;
 
-    FunctionCallJPE(int position, JsonPathFunction function, List<JsonPathExpression> arguments) throws ParseException {
+    FunctionCallJPE(int position, String name, JsonPathFunction function, List<JsonPathExpression> arguments)
+            throws ParseException {
         super(position, function.isVector());
+        this.name = name;
         this.function = function;
         this.arguments = arguments;
     }
 
+    JsonPathFunction getFunction() {
+        return function;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return arguments.toArray(new JsonPathExpression[arguments.size()]);
+    }
+
+    @Override
+    FunctionCallJPE withChildren(JsonPathExpression[] children) {
+        try {
+            return new FunctionCallJPE(position, name, function, Arrays.asList(children));
+        } catch (ParseException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
-        List<JsonNode> args = new ArrayList<JsonNode>();
+        context.countFunctionCall();
+        if (arguments.isEmpty()) {
+            return function.call(context, Collections.<JsonNode> emptyList());
+        }
+        List<JsonNode> args = new ArrayList<JsonNode>(arguments.size());
         for (JsonPathExpression e : arguments) {
-            args.add(e.eval(context).asNode());
+            args.add(e.evalNode(context));
         }
         return function.call(context, args);
     }
+
+    @Override
+    public String toString() {
+        StringBuilder buffer = new StringBuilder(name).append('(');
+        for (int i = 0; i < arguments.size(); i++) {
+            if (i > 0) {
+                buffer.append(", ");
+            }
+            buffer.append(arguments.get(i));
+        }
+        return buffer.append(')').toString();
+    }
 }
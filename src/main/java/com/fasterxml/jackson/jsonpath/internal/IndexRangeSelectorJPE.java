@@ -20,11 +20,8 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
-import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
-class IndexRangeSelectorJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class IndexRangeSelectorJPE extends NodeSelectorJPE {
 
     private int start;
 
@@ -34,24 +31,26 @@ class IndexRangeSelectorJPE extends JsonPathExpression {
 
     IndexRangeSelectorJPE(int position, JsonPathExpression object, int start, Integer end, Integer step)
             throws ParseException {
-        super(position, object.isVector());
-        this.object = object;
-        this.start = start;
-        this.end = end;
-        this.step = step == null ? 1 : step;
+        this(position, object, start, end, step == null ? 1 : step.intValue());
         if (this.step == 0) {
             throw new ParseException("the step in a range must be different from 0", position);
         }
     }
 
+    private IndexRangeSelectorJPE(int position, JsonPathExpression object, int start, Integer end, int step) {
+        super(position, object);
+        this.start = start;
+        this.end = end;
+        this.step = step;
+    }
+
     @Override
-    public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+    IndexRangeSelectorJPE withObject(JsonPathExpression newObject) {
+        return new IndexRangeSelectorJPE(position, newObject, start, end, step);
     }
 
     @Override
-    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
-        JsonNode o = childValues[0];
+    JsonNode select(JsonPathContext context, JsonNode o) {
         if (!o.isArray()) {
             throw new JsonPathRuntimeException("index selector must apply on an array, not a "
                     + o.getNodeType().toString().toLowerCase(), position);
@@ -79,6 +78,6 @@ class IndexRangeSelectorJPE extends JsonPathExpression {
 
     @Override
     public String toString() {
-        return object.toString() + "[" + start + ":" + (end == null ? "" : end) + ":" + step + "]";
+        return getObject().toString() + "[" + start + ":" + (end == null ? "" : end) + ":" + step + "]";
     }
 }
@@ -16,37 +16,33 @@ package com.fasterxml.jackson.jsonpath.internal;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
-import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
-class IndexSelectorJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class IndexSelectorJPE extends NodeSelectorJPE {
 
     private int index;
 
     IndexSelectorJPE(int position, JsonPathExpression object, int index) {
-        super(position, object.isVector());
-        this.object = object;
+        super(position, object);
         this.index = index;
     }
 
+    int getIndex() {
+        return index;
+    }
+
     @Override
-    public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+    IndexSelectorJPE withObject(JsonPathExpression newObject) {
+        return new IndexSelectorJPE(position, newObject, index);
     }
 
     @Override
-    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
-        JsonNode o = childValues[0];
+    JsonNode select(JsonPathContext context, JsonNode o) {
         if (!o.isArray()) {
             throw new JsonPathRuntimeException("index selector must apply on an array, not a "
                     + o.getNodeType().toString().toLowerCase(), position);
         }
-        if (index >= o.size()) {
-            throw new JsonPathRuntimeException("index out of bound " + index + " > " + (o.size() - 1), position);
-        }
-        if (index < -o.size()) {
-            throw new JsonPathRuntimeException("index out of bound " + index + " < " + (-o.size()), position);
+        if (index >= o.size() || index < -o.size()) {
+            throw indexOutOfBound(index, o.size());
         }
         if (index < 0) {
             return o.path(o.size() + index);
@@ -56,6 +52,6 @@ class IndexSelectorJPE extends JsonPathExpression {
 
     @Override
     public String toString() {
-        return object.toString() + "[" + index + "]";
+        return getObject().toString() + "[" + index + "]";
     }
 }
@@ -0,0 +1,64 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * A subexpression of a filter which doesn't depend on the filtered element. It is evaluated on first use, then its
+ * value is kept in the frame of the filter for the next elements.
+ */
+class InvariantJPE extends JsonPathExpression {
+
+    // the index of the value in the frame of the filter
+    private int slot;
+
+    private JsonPathExpression expr;
+
+    InvariantJPE(int slot, JsonPathExpression expr) {
+        super(expr.position, expr.isVector());
+        this.slot = slot;
+        this.expr = expr;
+    }
+
+    int getSlot() {
+        return slot;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { expr };
+    }
+
+    @Override
+    InvariantJPE withChildren(JsonPathExpression[] children) {
+        return new InvariantJPE(slot, children[0]);
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context) {
+        JsonPathValue value = context.getInvariant(slot);
+        if (value == null) {
+            value = expr.eval(context);
+            context.setInvariant(slot, value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return expr.toString();
+    }
+}
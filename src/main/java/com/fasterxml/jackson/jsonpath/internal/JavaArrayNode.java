@@ -0,0 +1,241 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.MissingNode;
+
+/**
+ * Read only view of a collection or of an array as a json array, its elements being looked up on first access
+ */
+class JavaArrayNode extends ContainerNode<JavaArrayNode> {
+
+    private final JavaNodes nodes;
+
+    private final Object value;
+
+    private volatile List<JsonNode> elements;
+
+    JavaArrayNode(JavaNodes nodes, Object value) {
+        super(JsonNodeFactory.instance);
+        this.nodes = nodes;
+        this.value = value;
+    }
+
+    private List<JsonNode> elementList() {
+        List<JsonNode> ret = elements;
+        if (ret == null) {
+            List<Object> values = JavaNodes.elementsOf(value);
+            ret = new ArrayList<JsonNode>(values.size());
+            for (Object element : values) {
+                ret.add(nodes.wrap(element));
+            }
+            ret = Collections.unmodifiableList(ret);
+            elements = ret;
+        }
+        return ret;
+    }
+
+    @Override
+    public JsonNodeType getNodeType() {
+        return JsonNodeType.ARRAY;
+    }
+
+    @Override
+    public JsonToken asToken() {
+        return JsonToken.START_ARRAY;
+    }
+
+    @Override
+    public int size() {
+        return elementList().size();
+    }
+
+    @Override
+    public Iterator<JsonNode> elements() {
+        return elementList().iterator();
+    }
+
+    @Override
+    public JsonNode get(int index) {
+        List<JsonNode> list = elementList();
+        if (index >= 0 && index < list.size()) {
+            return list.get(index);
+        }
+        return null;
+    }
+
+    @Override
+    public JsonNode get(String fieldName) {
+        return null;
+    }
+
+    @Override
+    public JsonNode path(int index) {
+        JsonNode node = get(index);
+        return node == null ? MissingNode.getInstance() : node;
+    }
+
+    @Override
+    public JsonNode path(String fieldName) {
+        return MissingNode.getInstance();
+    }
+
+    @Override
+    protected JsonNode _at(JsonPointer ptr) {
+        return get(ptr.getMatchingIndex());
+    }
+
+    @Override
+    public JsonNode findValue(String fieldName) {
+        for (JsonNode element : elementList()) {
+            JsonNode value = element.findValue(fieldName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public JsonNode findParent(String fieldName) {
+        for (JsonNode element : elementList()) {
+            JsonNode parent = element.findParent(fieldName);
+            if (parent != null) {
+                return parent;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<JsonNode> findValues(String fieldName, List<JsonNode> foundSoFar) {
+        for (JsonNode element : elementList()) {
+            foundSoFar = element.findValues(fieldName, foundSoFar);
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public List<String> findValuesAsText(String fieldName, List<String> foundSoFar) {
+        for (JsonNode element : elementList()) {
+            foundSoFar = element.findValuesAsText(fieldName, foundSoFar);
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public List<JsonNode> findParents(String fieldName, List<JsonNode> foundSoFar) {
+        for (JsonNode element : elementList()) {
+            foundSoFar = element.findParents(fieldName, foundSoFar);
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public JavaArrayNode removeAll() {
+        throw new UnsupportedOperationException("read only view of " + value.getClass().getName());
+    }
+
+    /**
+     * @return the collection converted to a json tree, an {@link ArrayNode}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends JsonNode> T deepCopy() {
+        ArrayNode copy = JsonNodeFactory.instance.arrayNode();
+        for (JsonNode element : elementList()) {
+            copy.add(element.deepCopy());
+        }
+        return (T) copy;
+    }
+
+    @Override
+    public void serialize(JsonGenerator jg, SerializerProvider provider) throws IOException {
+        jg.writeStartArray();
+        serializeElements(jg, provider);
+        jg.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator jg, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        typeSer.writeTypePrefixForArray(this, jg);
+        serializeElements(jg, provider);
+        typeSer.writeTypeSuffixForArray(this, jg);
+    }
+
+    private void serializeElements(JsonGenerator jg, SerializerProvider provider) throws IOException {
+        for (JsonNode element : elementList()) {
+            JavaNodes.serialize(element, jg, provider);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof JsonNode) || !((JsonNode) o).isArray()) {
+            return false;
+        }
+        JsonNode other = (JsonNode) o;
+        List<JsonNode> list = elementList();
+        if (list.size() != other.size()) {
+            return false;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            if (!JavaNodes.equal(list.get(i), other.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return elementList().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        List<JsonNode> list = elementList();
+        StringBuilder sb = new StringBuilder(16 + (list.size() << 4));
+        sb.append('[');
+        for (int i = 0; i < list.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(list.get(i).toString());
+        }
+        sb.append(']');
+        return sb.toString();
+    }
+}
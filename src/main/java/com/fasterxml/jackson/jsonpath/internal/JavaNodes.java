@@ -0,0 +1,297 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.AnnotationIntrospector;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.impl.ObjectIdWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+/**
+ * Views of java objects as json nodes, to evaluate paths on them without converting them to a json tree first.
+ * <p>
+ * The maps, the collections, the arrays and the beans are seen as read only containers whose content is looked up only
+ * when the evaluation navigates into them, so only the visited part of the object graph is converted. The beans are
+ * seen through the property writers of their bean serializer, so with its names and order. The other values, and the
+ * beans whose serializer does more than writing its properties as is (any getter, unwrapping, non default inclusion,
+ * views, filters, type information, custom property serializers), are converted by the object mapper, as
+ * {@link ObjectMapper#valueToTree(Object)} does.
+ */
+public class JavaNodes {
+
+    private static final JsonNodeFactory FACTORY = JsonNodeFactory.instance;
+
+    private static final Accessor[] NOT_A_BEAN = new Accessor[0];
+
+    private final ObjectMapper mapper;
+
+    private final ConcurrentHashMap<Class<?>, Accessor[]> beans = new ConcurrentHashMap<Class<?>, Accessor[]>();
+
+    public JavaNodes(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * @return the value seen as a json node
+     */
+    public JsonNode wrap(Object value) {
+        if (value == null) {
+            return NullNode.getInstance();
+        }
+        if (value instanceof JsonNode) {
+            return (JsonNode) value;
+        }
+        if (value instanceof String) {
+            return FACTORY.textNode((String) value);
+        }
+        if (value instanceof Boolean) {
+            return FACTORY.booleanNode((Boolean) value);
+        }
+        if (value instanceof Number) {
+            JsonNode number = numberNode((Number) value);
+            if (number != null) {
+                return number;
+            }
+        }
+        if (value instanceof Map) {
+            return new JavaObjectNode(this, value, null);
+        }
+        if (value instanceof Collection) {
+            return new JavaArrayNode(this, value);
+        }
+        if (value.getClass().isArray() && !(value instanceof byte[])) {
+            return new JavaArrayNode(this, value);
+        }
+        Accessor[] accessors = accessors(value.getClass());
+        if (accessors != NOT_A_BEAN) {
+            return new JavaObjectNode(this, value, accessors);
+        }
+        return mapper.valueToTree(value);
+    }
+
+    private static JsonNode numberNode(Number value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return FACTORY.numberNode(value.intValue());
+        }
+        if (value instanceof Long) {
+            return FACTORY.numberNode(value.longValue());
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return FACTORY.numberNode(value.doubleValue());
+        }
+        if (value instanceof BigDecimal) {
+            return FACTORY.numberNode((BigDecimal) value);
+        }
+        if (value instanceof BigInteger) {
+            return FACTORY.numberNode((BigInteger) value);
+        }
+        // an atomic number or some other implementation, left to the object mapper
+        return null;
+    }
+
+    /**
+     * Writes a node of a view without converting it first
+     */
+    static void serialize(JsonNode node, JsonGenerator jg, SerializerProvider provider) throws IOException {
+        if (node instanceof JsonSerializable) {
+            ((JsonSerializable) node).serialize(jg, provider);
+        } else {
+            jg.writeTree(node);
+        }
+    }
+
+    /**
+     * @return whether two nodes are equal, the views being compared with the nodes they would be converted to
+     */
+    static boolean equal(JsonNode a, JsonNode b) {
+        if (b instanceof JavaObjectNode || b instanceof JavaArrayNode) {
+            return b.equals(a);
+        }
+        return a.equals(b);
+    }
+
+    /**
+     * @return the elements of a collection or of an array
+     */
+    static List<Object> elementsOf(Object value) {
+        if (value instanceof Collection) {
+            return new ArrayList<Object>((Collection<?>) value);
+        }
+        int n = Array.getLength(value);
+        List<Object> elements = new ArrayList<Object>(n);
+        for (int i = 0; i < n; i++) {
+            elements.add(Array.get(value, i));
+        }
+        return elements;
+    }
+
+    /**
+     * @return the accessors of the properties of the class if the object mapper serializes it as a bean,
+     *         {@link #NOT_A_BEAN} otherwise
+     */
+    private Accessor[] accessors(Class<?> type) {
+        Accessor[] accessors = beans.get(type);
+        if (accessors == null) {
+            accessors = introspect(type);
+            beans.putIfAbsent(type, accessors);
+        }
+        return accessors;
+    }
+
+    private Accessor[] introspect(Class<?> type) {
+        SerializationConfig config = mapper.getSerializationConfig();
+        JavaType javaType = mapper.constructType(type);
+        JsonSerializer<Object> serializer;
+        try {
+            serializer = ((DefaultSerializerProvider) mapper.getSerializerProvider()).createInstance(config,
+                    mapper.getSerializerFactory()).findValueSerializer(type, null);
+            if (!(serializer instanceof BeanSerializerBase)
+                    || mapper.getSerializerFactory().createTypeSerializer(config, javaType) != null) {
+                return NOT_A_BEAN;
+            }
+        } catch (JsonMappingException e) {
+            return NOT_A_BEAN;
+        }
+        Writers writers = new Writers((BeanSerializerBase) serializer);
+        if (!writers.isPlain()) {
+            return NOT_A_BEAN;
+        }
+        AnnotationIntrospector introspector = config.getAnnotationIntrospector();
+        Accessor[] accessors = new Accessor[writers.properties().length];
+        for (int i = 0; i < accessors.length; i++) {
+            BeanPropertyWriter writer = writers.properties()[i];
+            AnnotatedMember member = writer.getMember();
+            if (!isWrittenAsIs(writer, config, introspector)) {
+                return NOT_A_BEAN;
+            }
+            if (config.canOverrideAccessModifiers()) {
+                member.fixAccess();
+            }
+            accessors[i] = new Accessor(writer.getName(), member);
+        }
+        return accessors;
+    }
+
+    /**
+     * @return whether the property is written as its value would be on its own, so without any configuration the
+     *         view of the value would miss
+     */
+    private static boolean isWrittenAsIs(BeanPropertyWriter writer, SerializationConfig config,
+            AnnotationIntrospector introspector) {
+        AnnotatedMember member = writer.getMember();
+        JavaType type = writer.getType();
+        return !writer.isUnwrapping() && !writer.willSuppressNulls() && writer.getViews() == null
+                && writer.getSerializationType() == null && introspector.findSerializer(member) == null
+                && introspector.findContentSerializer(member) == null && introspector.findKeySerializer(member) == null
+                && introspector.findSerializationConverter(member) == null
+                && introspector.findSerializationContentConverter(member) == null
+                && introspector.findPropertyTypeResolver(config, member, type) == null
+                && (!type.isContainerType()
+                        || introspector.findPropertyContentTypeResolver(config, member, type) == null);
+    }
+
+    /**
+     * Exposes the property writers of a bean serializer, so that the views read the properties it would write with
+     * the names it would write them
+     */
+    private static class Writers extends BeanSerializerBase {
+
+        private static final long serialVersionUID = 1L;
+
+        Writers(BeanSerializerBase serializer) {
+            super(serializer);
+        }
+
+        BeanPropertyWriter[] properties() {
+            return _props;
+        }
+
+        /**
+         * @return whether the serializer writes its properties in order and nothing else
+         */
+        boolean isPlain() {
+            return _filteredProps == null && _anyGetterWriter == null && _propertyFilterId == null
+                    && _typeId == null && _objectIdWriter == null && _serializationShape != JsonFormat.Shape.ARRAY;
+        }
+
+        @Override
+        public BeanSerializerBase withObjectIdWriter(ObjectIdWriter objectIdWriter) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected BeanSerializerBase withIgnorals(String[] toIgnore) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected BeanSerializerBase asArraySerializer() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        protected BeanSerializerBase withFilterId(Object filterId) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void serialize(Object bean, JsonGenerator jgen, SerializerProvider provider) {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Reads a property of a bean
+     */
+    static class Accessor {
+
+        final String name;
+
+        private final AnnotatedMember member;
+
+        Accessor(String name, AnnotatedMember member) {
+            this.name = name;
+            this.member = member;
+        }
+
+        Object get(Object bean) {
+            return member.getValue(bean);
+        }
+    }
+}
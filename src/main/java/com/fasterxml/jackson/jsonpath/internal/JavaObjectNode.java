@@ -0,0 +1,294 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.CharTypes;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.JsonNodeType;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.jsonpath.internal.JavaNodes.Accessor;
+
+/**
+ * Read only view of a map or of a bean as a json object, its fields being looked up on first access
+ */
+class JavaObjectNode extends ContainerNode<JavaObjectNode> {
+
+    private final JavaNodes nodes;
+
+    private final Object value;
+
+    // the properties of the bean, null if the value is a map
+    private final Accessor[] accessors;
+
+    private volatile Map<String, JsonNode> fields;
+
+    JavaObjectNode(JavaNodes nodes, Object value, Accessor[] accessors) {
+        super(JsonNodeFactory.instance);
+        this.nodes = nodes;
+        this.value = value;
+        this.accessors = accessors;
+    }
+
+    private Map<String, JsonNode> fieldMap() {
+        Map<String, JsonNode> ret = fields;
+        if (ret == null) {
+            ret = new LinkedHashMap<String, JsonNode>();
+            if (accessors == null) {
+                for (Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                    ret.put(String.valueOf(entry.getKey()), nodes.wrap(entry.getValue()));
+                }
+            } else {
+                for (Accessor accessor : accessors) {
+                    ret.put(accessor.name, nodes.wrap(accessor.get(value)));
+                }
+            }
+            fields = ret;
+        }
+        return ret;
+    }
+
+    @Override
+    public JsonNodeType getNodeType() {
+        return JsonNodeType.OBJECT;
+    }
+
+    @Override
+    public JsonToken asToken() {
+        return JsonToken.START_OBJECT;
+    }
+
+    @Override
+    public int size() {
+        return fieldMap().size();
+    }
+
+    @Override
+    public Iterator<JsonNode> elements() {
+        return fieldMap().values().iterator();
+    }
+
+    @Override
+    public Iterator<String> fieldNames() {
+        return fieldMap().keySet().iterator();
+    }
+
+    @Override
+    public Iterator<Entry<String, JsonNode>> fields() {
+        return fieldMap().entrySet().iterator();
+    }
+
+    @Override
+    public JsonNode get(int index) {
+        return null;
+    }
+
+    @Override
+    public JsonNode get(String fieldName) {
+        return fieldMap().get(fieldName);
+    }
+
+    @Override
+    public JsonNode path(int index) {
+        return MissingNode.getInstance();
+    }
+
+    @Override
+    public JsonNode path(String fieldName) {
+        JsonNode node = get(fieldName);
+        return node == null ? MissingNode.getInstance() : node;
+    }
+
+    @Override
+    protected JsonNode _at(JsonPointer ptr) {
+        return get(ptr.getMatchingProperty());
+    }
+
+    @Override
+    public JsonNode findValue(String fieldName) {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            if (fieldName.equals(entry.getKey())) {
+                return entry.getValue();
+            }
+            JsonNode value = entry.getValue().findValue(fieldName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public JsonNode findParent(String fieldName) {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            if (fieldName.equals(entry.getKey())) {
+                return this;
+            }
+            JsonNode value = entry.getValue().findParent(fieldName);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public List<JsonNode> findValues(String fieldName, List<JsonNode> foundSoFar) {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            if (fieldName.equals(entry.getKey())) {
+                if (foundSoFar == null) {
+                    foundSoFar = new ArrayList<JsonNode>();
+                }
+                foundSoFar.add(entry.getValue());
+            } else {
+                foundSoFar = entry.getValue().findValues(fieldName, foundSoFar);
+            }
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public List<String> findValuesAsText(String fieldName, List<String> foundSoFar) {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            if (fieldName.equals(entry.getKey())) {
+                if (foundSoFar == null) {
+                    foundSoFar = new ArrayList<String>();
+                }
+                foundSoFar.add(entry.getValue().asText());
+            } else {
+                foundSoFar = entry.getValue().findValuesAsText(fieldName, foundSoFar);
+            }
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public List<JsonNode> findParents(String fieldName, List<JsonNode> foundSoFar) {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            if (fieldName.equals(entry.getKey())) {
+                if (foundSoFar == null) {
+                    foundSoFar = new ArrayList<JsonNode>();
+                }
+                foundSoFar.add(this);
+            } else {
+                foundSoFar = entry.getValue().findParents(fieldName, foundSoFar);
+            }
+        }
+        return foundSoFar;
+    }
+
+    @Override
+    public JavaObjectNode removeAll() {
+        throw new UnsupportedOperationException("read only view of " + value.getClass().getName());
+    }
+
+    /**
+     * @return the object converted to a json tree, an {@link ObjectNode}
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends JsonNode> T deepCopy() {
+        ObjectNode copy = JsonNodeFactory.instance.objectNode();
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            copy.set(entry.getKey(), entry.getValue().deepCopy());
+        }
+        return (T) copy;
+    }
+
+    @Override
+    public void serialize(JsonGenerator jg, SerializerProvider provider) throws IOException {
+        jg.writeStartObject();
+        serializeFields(jg, provider);
+        jg.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator jg, SerializerProvider provider, TypeSerializer typeSer)
+            throws IOException {
+        typeSer.writeTypePrefixForObject(this, jg);
+        serializeFields(jg, provider);
+        typeSer.writeTypeSuffixForObject(this, jg);
+    }
+
+    private void serializeFields(JsonGenerator jg, SerializerProvider provider) throws IOException {
+        for (Entry<String, JsonNode> entry : fieldMap().entrySet()) {
+            jg.writeFieldName(entry.getKey());
+            JavaNodes.serialize(entry.getValue(), jg, provider);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+        if (!(o instanceof JsonNode) || !((JsonNode) o).isObject()) {
+            return false;
+        }
+        JsonNode other = (JsonNode) o;
+        Map<String, JsonNode> map = fieldMap();
+        if (map.size() != other.size()) {
+            return false;
+        }
+        for (Entry<String, JsonNode> entry : map.entrySet()) {
+            JsonNode otherValue = other.get(entry.getKey());
+            if (otherValue == null || !JavaNodes.equal(entry.getValue(), otherValue)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        return fieldMap().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        Map<String, JsonNode> map = fieldMap();
+        StringBuilder sb = new StringBuilder(32 + (map.size() << 4));
+        sb.append('{');
+        boolean first = true;
+        for (Entry<String, JsonNode> entry : map.entrySet()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append('"');
+            CharTypes.appendQuoted(sb, entry.getKey());
+            sb.append('"');
+            sb.append(':');
+            sb.append(entry.getValue().toString());
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+}
@@ -18,11 +18,48 @@ import java.math.BigDecimal;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.IntNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 
 class JsonNodeUtil {
 
+    private static final int SMALL_INT_MIN = -128;
+
+    private static final int SMALL_INT_MAX = 1023;
+
+    // the int nodes most often produced by the operators, like counters and indexes, allocated once
+    private static final IntNode[] SMALL_INTS = new IntNode[SMALL_INT_MAX - SMALL_INT_MIN + 1];
+
+    static {
+        for (int i = 0; i < SMALL_INTS.length; i++) {
+            SMALL_INTS[i] = IntNode.valueOf(SMALL_INT_MIN + i);
+        }
+    }
+
+    // the names of the first elements of the arrays, shared by all the arrays
+    private static final String[] INDEX_NAMES = new String[1024];
+
+    static {
+        for (int i = 0; i < INDEX_NAMES.length; i++) {
+            INDEX_NAMES[i] = Integer.toString(i);
+        }
+    }
+
+    /**
+     * @return the name of the element of an array at that index
+     */
+    static String indexName(int index) {
+        return index < INDEX_NAMES.length ? INDEX_NAMES[index] : Integer.toString(index);
+    }
+
+    static IntNode intNode(int value) {
+        if (value >= SMALL_INT_MIN && value <= SMALL_INT_MAX) {
+            return SMALL_INTS[value - SMALL_INT_MIN];
+        }
+        return IntNode.valueOf(value);
+    }
+
     static ArrayNode arrayNode(Object... values) {
         ArrayNode array = JsonNodeFactory.instance.arrayNode();
         for (Object value : values) {
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+/**
+ * Compiles an expression tree into a form cheaper to evaluate.
+ * <p>
+ * The subexpressions on single values are replaced by {@link CompiledJPE}s which work directly on nodes: chains of
+ * field and index selectors are flattened into a single loop, and operators get the nodes of their children without
+ * going through the dot product. The expressions which have no compiled form, like the ones on vectors, are kept as
+ * is, with their children compiled.
+ */
+public class JsonPathCompiler {
+
+    private JsonPathCompiler() {
+        // static only
+    }
+
+    public static JsonPathExpression compile(JsonPathExpression expr) {
+        JsonPathExpression[] children = expr.getChildren();
+        if (children.length > 0) {
+            boolean changed = false;
+            JsonPathExpression[] compiledChildren = new JsonPathExpression[children.length];
+            for (int i = 0; i < children.length; i++) {
+                compiledChildren[i] = compile(children[i]);
+                changed |= compiledChildren[i] != children[i];
+            }
+            if (changed) {
+                expr = expr.withChildren(compiledChildren);
+            }
+        }
+        if (expr.isVector()) {
+            return expr;
+        }
+        if (expr instanceof NodeSelectorJPE) {
+            NodeSelectorJPE selector = (NodeSelectorJPE) expr;
+            if (selector.getObject() instanceof CompiledSelectorChainJPE) {
+                return ((CompiledSelectorChainJPE) selector.getObject()).append(selector);
+            }
+            return new CompiledSelectorChainJPE(selector.getObject(), new NodeSelectorJPE[] { selector });
+        }
+        if (expr instanceof ArithmeticJPE || expr instanceof CompareJPE || expr instanceof ShiftJPE
+                || expr instanceof BitwiseJPE || expr instanceof UnaryJPE) {
+            return new CompiledComputeJPE(expr);
+        }
+        return expr;
+    }
+}
@@ -14,31 +14,161 @@
  */
 package com.fasterxml.jackson.jsonpath.internal;
 
+import java.util.Arrays;
+
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.IndexedDocument;
+import com.fasterxml.jackson.jsonpath.JsonPathParallelism;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
+/**
+ * The frame in which an expression is evaluated.
+ * <p>
+ * The expressions iterating on the elements of a vector, like the filters, don't allocate a context per element: they
+ * take the {@link #childFrame() child frame} of their context once, and move it from element to element. So a frame
+ * is not thread safe: the chunks of a parallel evaluation each work on their own {@link #fork() copy}.
+ */
 public class JsonPathContext {
 
     private JsonNode root;
 
     private JsonNode this_;
 
-    private Integer pos;
+    // the position of this in the iterated vector, -1 if not iterating
+    private int pos = -1;
 
     private String elementName;
 
+    // when iterating on a vector, the names of the elements, only looked up when asked
+    private JsonPathVectorValue vector;
+
+    private JsonPathParallelism parallelism;
+
+    private IndexedDocument index;
+
+    // the values of the invariant subexpressions of the filter iterating in this frame, computed on first use
+    private JsonPathValue[] invariants;
+
+    private JsonPathContext child;
+
+    // the counters of the evaluation when it is measured, null otherwise
+    private JsonPathCounters counters;
+
     public JsonPathContext(JsonNode root) {
-        this(root, root);
+        this(root, null);
+    }
+
+    /**
+     * @param parallelism
+     *            how to evaluate the large vectors in parallel, <code>null</code> to evaluate them sequentially
+     */
+    public JsonPathContext(JsonNode root, JsonPathParallelism parallelism) {
+        this.root = root;
+        this.this_ = root;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param index
+     *            the index of the document to evaluate, which is its root
+     */
+    public JsonPathContext(IndexedDocument index, JsonPathParallelism parallelism) {
+        this(index.getRoot(), parallelism);
+        this.index = index;
+    }
+
+    /**
+     * @return the frame in which the elements iterated from this context are evaluated, the same one at each call
+     */
+    JsonPathContext childFrame() {
+        if (child == null) {
+            child = new JsonPathContext(root, parallelism);
+            child.index = index;
+            child.counters = counters;
+        }
+        return child;
     }
 
-    JsonPathContext(JsonPathContext context, JsonNode this_, int pos, String elementName) {
-        this(context.root, this_);
+    /**
+     * @return a new context on the same element, with its own child frame
+     */
+    JsonPathContext fork() {
+        JsonPathContext fork = new JsonPathContext(root, parallelism);
+        fork.index = index;
+        fork.counters = counters;
+        fork.this_ = this_;
+        fork.pos = pos;
+        fork.elementName = elementName;
+        fork.vector = vector;
+        return fork;
+    }
+
+    void setElement(JsonNode this_, int pos, String elementName) {
+        this.this_ = this_;
         this.pos = pos;
         this.elementName = elementName;
+        this.vector = null;
     }
 
-    private JsonPathContext(JsonNode root, JsonNode this_) {
-        this.root = root;
+    void setElement(JsonNode this_, int pos, JsonPathVectorValue vector) {
         this.this_ = this_;
+        this.pos = pos;
+        this.elementName = null;
+        this.vector = vector;
+    }
+
+    /**
+     * Forgets the values of the invariant subexpressions, before a filter starts iterating in this frame
+     */
+    void resetInvariants(int count) {
+        if (count == 0) {
+            return;
+        }
+        if (invariants == null || invariants.length < count) {
+            invariants = new JsonPathValue[count];
+        } else {
+            Arrays.fill(invariants, 0, count, null);
+        }
+    }
+
+    JsonPathValue getInvariant(int slot) {
+        return invariants[slot];
+    }
+
+    void setInvariant(int slot, JsonPathValue value) {
+        invariants[slot] = value;
+    }
+
+    /**
+     * @param counters
+     *            the counters of the work done by the evaluation in this context, <code>null</code> to not count it
+     */
+    public void setCounters(JsonPathCounters counters) {
+        this.counters = counters;
+    }
+
+    void countScanned(int n) {
+        if (counters != null) {
+            counters.scanned(n);
+        }
+    }
+
+    void countFunctionCall() {
+        if (counters != null) {
+            counters.functionCalled();
+        }
+    }
+
+    public JsonPathParallelism getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * @return the index of the evaluated document, <code>null</code> if it is not indexed
+     */
+    public IndexedDocument getIndex() {
+        return index;
     }
 
     public JsonNode getRoot() {
@@ -50,10 +180,23 @@ public class JsonPathContext {
     }
 
     public Integer getPos() {
+        if (pos < 0) {
+            return null;
+        }
+        return pos;
+    }
+
+    /**
+     * @return the position of this in the iterated vector, -1 if not iterating
+     */
+    public int getPosAsInt() {
         return pos;
     }
 
     public String getElementName() {
+        if (vector != null) {
+            return vector.getName(pos);
+        }
         return elementName;
     }
 }
@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the work done by an evaluation, when it is measured. The counters are shared by the frames and the parallel
+ * chunks of the evaluation.
+ */
+public class JsonPathCounters {
+
+    private final AtomicLong scanned = new AtomicLong();
+
+    private final AtomicLong functionCalls = new AtomicLong();
+
+    void scanned(int n) {
+        scanned.addAndGet(n);
+    }
+
+    void functionCalled() {
+        functionCalls.incrementAndGet();
+    }
+
+    /**
+     * @return the number of elements on which a filter was evaluated
+     */
+    public long getScanned() {
+        return scanned.get();
+    }
+
+    public long getFunctionCalls() {
+        return functionCalls.get();
+    }
+}
@@ -15,7 +15,6 @@
 package com.fasterxml.jackson.jsonpath.internal;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.BooleanNode;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.JsonNodeType;
@@ -28,6 +27,8 @@ import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
 public abstract class JsonPathExpression {
 
+    private static final JsonPathExpression[] NO_CHILDREN = new JsonPathExpression[0];
+
     int position;
 
     private boolean vector;
@@ -50,8 +51,62 @@ public abstract class JsonPathExpression {
         return false;
     }
 
+    JsonPathExpression[] getChildren() {
+        return NO_CHILDREN;
+    }
+
+    /**
+     * @param children
+     *            the replacements of the expressions returned by {@link #getChildren()}, in the same order and with
+     *            the same dimension
+     * @return a copy of this expression applying on other children
+     */
+    JsonPathExpression withChildren(JsonPathExpression[] children) {
+        return this;
+    }
+
+    static boolean contains(JsonPathExpression expr, Class<? extends JsonPathExpression> type) {
+        if (type.isInstance(expr)) {
+            return true;
+        }
+        for (JsonPathExpression child : expr.getChildren()) {
+            if (contains(child, type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     public abstract JsonPathValue eval(JsonPathContext context);
 
+    /**
+     * Evaluates no more than the first <code>limit</code> values of a vector, for the callers which don't need the
+     * others. The selectors and the filters stop iterating once they have enough values, the other expressions
+     * evaluate everything. The evaluation is sequential.
+     */
+    public JsonPathValue eval(JsonPathContext context, int limit) {
+        return first(eval(context), limit);
+    }
+
+    /**
+     * @return the first <code>limit</code> values of the value, the value itself if it is not a larger vector
+     */
+    static JsonPathValue first(JsonPathValue value, int limit) {
+        if (!(value instanceof JsonPathVectorValue) || ((JsonPathVectorValue) value).size() <= limit) {
+            return value;
+        }
+        JsonPathVectorValue vector = (JsonPathVectorValue) value;
+        JsonPathVectorValue ret = new JsonPathVectorValue(limit);
+        for (int i = 0; i < limit; i++) {
+            ret.add(vector.get(i), vector.getName(i));
+        }
+        return ret;
+    }
+
+    JsonNode evalNode(JsonPathContext context) {
+        return eval(context).asNode();
+    }
+
     JsonPathValue evalAsDotProduct(JsonPathContext context, JsonPathExpression... children) {
         JsonPathValue[] values = new JsonPathValue[children.length];
         JsonNode[] nodes = new JsonNode[children.length];
@@ -61,12 +116,12 @@ public abstract class JsonPathExpression {
         for (int i = 0; i < children.length; i++) {
             values[i] = children[i].eval(context);
             if (values[i] instanceof JsonPathVectorValue) {
-                ArrayNode subNodes = ((JsonPathVectorValue) values[i]).asNode();
+                int size = ((JsonPathVectorValue) values[i]).size();
                 if (vectorLength == null) {
-                    vectorLength = subNodes.size();
-                } else if (vectorLength != subNodes.size()) {
+                    vectorLength = size;
+                } else if (vectorLength != size) {
                     throw new JsonPathRuntimeException("dot product of incompatible sizes: " + vectorLength + " vs "
-                            + subNodes.size(), position);
+                            + size, position);
                 }
             } else {
                 nodes[i] = values[i].asNode();
@@ -77,13 +132,27 @@ public abstract class JsonPathExpression {
             return compute(context, nodes);
         }
 
-        JsonPathVectorValue ret = new JsonPathVectorValue();
-        for (int i = 0; i < vectorLength; i++) {
+        if (ParallelVectorEvaluation.isParallel(context, vectorLength)) {
+            final JsonPathValue[] vectorValues = values;
+            final JsonNode[] singleNodes = nodes;
+            return new ParallelVectorEvaluation(context, vectorLength) {
+                @Override
+                JsonPathVectorValue evalChunk(JsonPathContext chunkContext, int start, int end) {
+                    return dotProduct(chunkContext, vectorValues, singleNodes.clone(), start, end);
+                }
+            }.run();
+        }
+        return dotProduct(context, values, nodes, 0, vectorLength);
+    }
+
+    private JsonPathVectorValue dotProduct(JsonPathContext context, JsonPathValue[] values, JsonNode[] nodes,
+            int start, int end) {
+        JsonPathVectorValue ret = new JsonPathVectorValue(end - start);
+        for (int i = start; i < end; i++) {
 
             for (int j = 0; j < values.length; j++) {
                 if (values[j] instanceof JsonPathVectorValue) {
-                    ArrayNode subNodes = ((JsonPathVectorValue) values[j]).asNode();
-                    nodes[j] = subNodes.get(i);
+                    nodes[j] = ((JsonPathVectorValue) values[j]).get(i);
                 }
             }
 
@@ -131,6 +200,13 @@ public abstract class JsonPathExpression {
         throw new IllegalStateException("one of eval, evalNode or evalObject muste be implemented");
     }
 
+    JsonPathRuntimeException indexOutOfBound(int index, int size) {
+        if (index >= size) {
+            return new JsonPathRuntimeException("index out of bound " + index + " > " + (size - 1), position);
+        }
+        return new JsonPathRuntimeException("index out of bound " + index + " < " + (-size), position);
+    }
+
     Number asLenientNumber(JsonNode node) {
         if (node instanceof NumericNode) {
             NumericNode n = (NumericNode) node;
@@ -167,6 +243,38 @@ public abstract class JsonPathExpression {
         return n;
     }
 
+    /**
+     * The type of the numbers on which the operators compute, from the narrowest to the widest
+     */
+    enum NumberKind {
+        INT, LONG, DOUBLE;
+
+        NumberKind widest(NumberKind other) {
+            return compareTo(other) >= 0 ? this : other;
+        }
+    }
+
+    /**
+     * Does the same checks as {@link #asNumber(JsonNode, Object...)}, but without boxing the number, so that the
+     * operator can then read it as the primitive of the returned kind.
+     */
+    NumberKind numberKind(JsonNode node, String operator, String sign) {
+        if (node instanceof NumericNode) {
+            if (node.isDouble()) {
+                return NumberKind.DOUBLE;
+            }
+            if (node.isLong()) {
+                return NumberKind.LONG;
+            }
+            if (node.isInt()) {
+                return NumberKind.INT;
+            }
+        } else if (node.isNull()) {
+            throw new NullJsonException(position);
+        }
+        throw new TypeMismatchException(position, JsonNodeType.NUMBER, node, operator, sign, "'");
+    }
+
     Integer asLenientInt(JsonNode node) {
         if (node instanceof NumericNode) {
             return ((NumericNode) node).asInt();
@@ -194,7 +302,7 @@ public abstract class JsonPathExpression {
     }
 
     int evalAsInt(JsonPathContext jpcontext, Object... context) {
-        return asInt(eval(jpcontext).asNode(), context);
+        return asInt(evalNode(jpcontext), context);
     }
 
     Long asLenientLong(JsonNode node) {
@@ -224,7 +332,7 @@ public abstract class JsonPathExpression {
     }
 
     long evalAsLong(JsonPathContext jpcontext, Object... context) {
-        return asLong(eval(jpcontext).asNode(), context);
+        return asLong(evalNode(jpcontext), context);
     }
 
     Double asLenientDouble(JsonNode node) {
@@ -254,7 +362,7 @@ public abstract class JsonPathExpression {
     }
 
     double evalAsDouble(JsonPathContext jpcontext, Object... context) {
-        return asDouble(eval(jpcontext).asNode(), context);
+        return asDouble(evalNode(jpcontext), context);
     }
 
     String asLenientString(JsonNode node) {
@@ -284,7 +392,7 @@ public abstract class JsonPathExpression {
     }
 
     String evalAsString(JsonPathContext jpcontext, Object... context) {
-        return asString(eval(jpcontext).asNode(), context);
+        return asString(evalNode(jpcontext), context);
     }
 
     boolean asBoolean(JsonNode node) {
@@ -298,6 +406,6 @@ public abstract class JsonPathExpression {
     }
 
     boolean evalAsBoolean(JsonPathContext jpcontext) {
-        return asBoolean(eval(jpcontext).asNode());
+        return asBoolean(evalNode(jpcontext));
     }
 }
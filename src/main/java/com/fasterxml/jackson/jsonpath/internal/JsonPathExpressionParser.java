@@ -39,7 +39,7 @@ public class JsonPathExpressionParser {
         if (!parser.buffer.isConsumed()) {
             throw new ParseException("Expected character at end of expression", parser.buffer.pos + 1);
         }
-        return expr;
+        return JsonPathOptimizer.optimize(expr);
     }
 
     private Buffer buffer;
@@ -59,8 +59,8 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readConditionnalInclusiveOrExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        if (c != null && c == '?') {
+        char c = buffer.readAhead();
+        if (c == '?') {
             int p = buffer.pos;
             buffer.skip();
             JsonPathExpression onTrueExpr = readExpr();
@@ -77,9 +77,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readConditionnalAndExpr();
 
         buffer.skipWhiteSpace();
-        Character c1 = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c1 != null && c2 != null && c1 == '|' && c2 == '|') {
+        char c1 = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c1 == '|' && c2 == '|') {
             int p = buffer.pos;
             buffer.skip(2);
             JsonPathExpression rightExpr = readConditionnalInclusiveOrExpr();
@@ -93,9 +93,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readInclusiveOrExpr();
 
         buffer.skipWhiteSpace();
-        Character c1 = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c1 != null && c2 != null && c1 == '&' && c2 == '&') {
+        char c1 = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c1 == '&' && c2 == '&') {
             int p = buffer.pos;
             buffer.skip(2);
             JsonPathExpression rightExpr = readConditionnalAndExpr();
@@ -109,9 +109,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readExclusiveOrExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c != null && c == '|' && (c2 == null || c2 != '|')) {
+        char c = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c == '|' && c2 != '|') {
             int p = buffer.pos;
             buffer.skip();
             JsonPathExpression rightExpr = readInclusiveOrExpr();
@@ -125,9 +125,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readAndExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c != null && c == '^' && (c2 == null || c2 != '^')) {
+        char c = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c == '^' && c2 != '^') {
             int p = buffer.pos;
             buffer.skip();
             JsonPathExpression rightExpr = readExclusiveOrExpr();
@@ -141,9 +141,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readEqualityExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c != null && c == '&' && (c2 == null || c2 != '&')) {
+        char c = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c == '&' && c2 != '&') {
             int p = buffer.pos;
             buffer.skip();
             JsonPathExpression rightExpr = readAndExpr();
@@ -157,9 +157,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readRelationalExpr();
 
         buffer.skipWhiteSpace();
-        Character c1 = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c1 != null && c2 != null) {
+        char c1 = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c2 != Buffer.EOI) {
             if (c1 == '=' && c2 == '=') {
                 int p = buffer.pos;
                 buffer.skip(2);
@@ -180,9 +180,9 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readShiftExpr();
 
         buffer.skipWhiteSpace();
-        Character c1 = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        if (c1 != null && c2 != null) {
+        char c1 = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        if (c2 != Buffer.EOI) {
             if (c1 == '<' && c2 == '=') {
                 int p = buffer.pos;
                 buffer.skip(2);
@@ -213,16 +213,16 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readAdditiveExpr();
 
         buffer.skipWhiteSpace();
-        Character c1 = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        Character c3 = buffer.readAhead(3);
-        if (c1 != null && c2 != null) {
+        char c1 = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        char c3 = buffer.readAhead(3);
+        if (c2 != Buffer.EOI) {
             if (c1 == '<' && c2 == '<') {
                 int p = buffer.pos;
                 buffer.skip(2);
                 JsonPathExpression rightExpr = readShiftExpr();
                 expr = new ShiftJPE(p, ShiftOp.LEFT, expr, rightExpr);
-            } else if (c3 != null && c1 == '>' && c2 == '>' && c3 == '>') {
+            } else if (c1 == '>' && c2 == '>' && c3 == '>') {
                 int p = buffer.pos;
                 buffer.skip(3);
                 JsonPathExpression rightExpr = readShiftExpr();
@@ -242,8 +242,8 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readMultiplicativeExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        if (c != null) {
+        char c = buffer.readAhead();
+        if (c != Buffer.EOI) {
             if (c == '+') {
                 int p = buffer.pos;
                 buffer.skip();
@@ -264,8 +264,8 @@ public class JsonPathExpressionParser {
         JsonPathExpression expr = readUnaryExpr();
 
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        if (c != null) {
+        char c = buffer.readAhead();
+        if (c != Buffer.EOI) {
             if (c == '*') {
                 int p = buffer.pos;
                 buffer.skip();
@@ -289,13 +289,13 @@ public class JsonPathExpressionParser {
 
     private JsonPathExpression readUnaryExpr() throws ParseException {
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
+        char c = buffer.readAhead();
         JsonPathExpression expr;
-        if (c != null && c == '+') {
+        if (c == '+') {
             int p = buffer.pos;
             buffer.skip();
             expr = new UnaryJPE(p, UnaryOp.PLUS, readUnaryExpr());
-        } else if (c != null && c == '-') {
+        } else if (c == '-') {
             int p = buffer.pos;
             buffer.skip();
             expr = new UnaryJPE(p, UnaryOp.MINUS, readUnaryExpr());
@@ -307,13 +307,13 @@ public class JsonPathExpressionParser {
 
     private JsonPathExpression readUnaryExprNotPlusMinus() throws ParseException {
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
+        char c = buffer.readAhead();
         JsonPathExpression expr;
-        if (c != null && c == '~') {
+        if (c == '~') {
             int p = buffer.pos;
             buffer.skip();
             expr = new UnaryJPE(p, UnaryOp.NOT_BITWISE, readUnaryExpr());
-        } else if (c != null && c == '!') {
+        } else if (c == '!') {
             int p = buffer.pos;
             buffer.skip();
             expr = new UnaryJPE(p, UnaryOp.NOT, readUnaryExpr());
@@ -326,18 +326,18 @@ public class JsonPathExpressionParser {
 
     private JsonPathExpression readPrimaryExpr() throws ParseException {
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
+        char c = buffer.readAhead();
         JsonPathExpression expr;
-        if (c != null && c == '(') {
+        if (c == '(') {
             buffer.skip();
             expr = readExpr();
             buffer.skipWhiteSpace();
             buffer.readExpected(')', "parenthesed expression");
-        } else if (c != null && c == '$') {
+        } else if (c == '$') {
             int p = buffer.pos;
             buffer.skip();
             expr = new RootJPE(p);
-        } else if (c != null && c == '@') {
+        } else if (c == '@') {
             int p = buffer.pos;
             buffer.skip();
             expr = new ThisJPE(p);
@@ -349,10 +349,10 @@ public class JsonPathExpressionParser {
     }
 
     private JsonPathExpression readLiteral() throws ParseException {
-        Character c = buffer.readAhead();
-        if (c == null) {
+        if (buffer.isConsumed()) {
             return null;
         }
+        char c = buffer.readAhead();
         if (c == '\'') {
             int p = buffer.pos;
             buffer.skip();
@@ -367,106 +367,30 @@ public class JsonPathExpressionParser {
             buffer.readExpected('"', "end of string \"");
             return new LiteralJPE(p, JsonNodeFactory.instance.textNode(value));
         }
-        Character c2 = buffer.readAhead(2);
-        Character c3 = buffer.readAhead(3);
-        if (c == '0' && (c2 == 'x' || c2 == 'X')
-                && (c3 != null && (c3 >= '0' && c3 <= '9') || (c3 >= 'A' && c3 < 'F') || (c3 >= 'a' && c3 < 'f'))) {
+        char c2 = buffer.readAhead(2);
+        char c3 = buffer.readAhead(3);
+        if (c == '0' && (c2 == 'x' || c2 == 'X') && Character.digit(c3, 16) >= 0) {
             int p = buffer.pos;
             // hexa number
-            StringBuilder numberBuffer = new StringBuilder();
-            numberBuffer.append(c);
-            numberBuffer.append(c2);
             buffer.skip(2);
-            c = buffer.readAhead();
-            while (c != null) {
-                if (c >= '0' && c <= '9' || c >= 'A' && c < 'F' || c >= 'a' && c < 'f' || c == '_') {
-                    numberBuffer.append(c);
-                } else {
-                    break;
-                }
-                buffer.skip();
-                c = buffer.readAhead();
-            }
-            if (c == 'l' || c == 'L') {
-                numberBuffer.append(c);
-                buffer.skip();
-            }
-            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(Long.parseLong(numberBuffer.toString())));
+            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(readRadixNumber(p, 16)));
         }
         if (c == '0' && (c2 == 'b' || c2 == 'B') && (c3 == '0' || c3 == '1')) {
             int p = buffer.pos;
             // binary number
-            StringBuilder numberBuffer = new StringBuilder();
-            numberBuffer.append(c);
-            numberBuffer.append(c2);
             buffer.skip(2);
-            c = buffer.readAhead();
-            while (c != null) {
-                if (c == '0' || c == '1' || c == '_') {
-                    numberBuffer.append(c);
-                } else {
-                    break;
-                }
-                buffer.skip();
-                c = buffer.readAhead();
-            }
-            if (c == 'l' || c == 'L') {
-                numberBuffer.append(c);
-                buffer.skip();
-            }
-            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(Long.parseLong(numberBuffer.toString())));
+            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(readRadixNumber(p, 2)));
         }
-        if (c == '0' && c2 != null && c2 >= '0' && c2 <= '7') {
+        if (c == '0' && c2 >= '0' && c2 <= '7') {
             int p = buffer.pos;
             // octal number
-            StringBuilder numberBuffer = new StringBuilder();
-            numberBuffer.append(c);
             buffer.skip();
-            c = buffer.readAhead();
-            while (c != null) {
-                if (c >= '0' && c <= '7' || c == '_') {
-                    numberBuffer.append(c);
-                } else {
-                    break;
-                }
-                buffer.skip();
-                c = buffer.readAhead();
-            }
-            if (c == 'l' || c == 'L') {
-                numberBuffer.append(c);
-                buffer.skip();
-            }
-            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(Long.parseLong(numberBuffer.toString())));
-        }
-        if (c >= '0' && c <= '9') {
-            int p = buffer.pos;
-            StringBuilder numberBuffer = startReadNumber();
-            if (c == '.') {
-                appendFloatingPoint(numberBuffer);
-                return new LiteralJPE(p,
-                        JsonNodeFactory.instance.numberNode(Double.parseDouble(numberBuffer.toString())));
-            }
-            if (c == 'f' || c == 'F' || c == 'd' || c == 'D') {
-                numberBuffer.append(c);
-                buffer.skip();
-                return new LiteralJPE(p,
-                        JsonNodeFactory.instance.numberNode(Double.parseDouble(numberBuffer.toString())));
-            }
-            if (c == 'l' || c == 'L') {
-                numberBuffer.append(c);
-                buffer.skip();
-            }
-            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(Long.parseLong(numberBuffer.toString())));
+            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(readRadixNumber(p, 8)));
         }
-        if (c == '.' && c2 != null && c2 >= '0' && c2 <= '9') {
-            int p = buffer.pos;
-            // double number
-            StringBuilder numberBuffer = new StringBuilder();
-            appendFloatingPoint(numberBuffer);
-            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(Double.parseDouble(numberBuffer.toString())));
+        if (isNum(c) || c == '.' && isNum(c2)) {
+            return readDecimalNumber();
         }
-        Character c4 = buffer.readAhead(4);
-        if (c != null && c2 != null && c3 != null && c4 != null && c == 'n' && c2 == 'u' && c3 == 'l' && c4 == 'l') {
+        if (c == 'n' && c2 == 'u' && c3 == 'l' && buffer.readAhead(4) == 'l') {
             int p = buffer.pos;
             buffer.skip(4);
             return new LiteralJPE(p, JsonNodeFactory.instance.nullNode());
@@ -478,156 +402,230 @@ public class JsonPathExpressionParser {
             if (factory == null) {
                 throw new ParseException("unknown function '" + id + "'", buffer.pos);
             }
-            JsonPathFunction function = factory.parse(buffer.pos, arguments);
-            return new FunctionCallJPE(buffer.pos, function, arguments);
+            // fold the arguments first so the function sees the constant ones as literals
+            JsonPathOptimizer.optimize(arguments);
+            JsonPathFunction function = factory.parse(buffer.pos, arguments, functionRegistry);
+            return new FunctionCallJPE(buffer.pos, id, function, arguments);
         }
         return null;
     }
 
     private String readEscaped(char end) {
-        StringBuilder s = new StringBuilder();
-        Character c = null;
-        while ((c = buffer.readAhead()) != null) {
+        int start = buffer.pos + 1;
+        // only needed if there is some escaped character
+        StringBuilder s = null;
+        while (!buffer.isConsumed()) {
+            char c = buffer.readAhead();
             if (c == end) {
                 break;
             }
             buffer.skip();
             if (c == '\\') {
-                c = buffer.read();
-                if (c == null) {
+                if (s == null) {
+                    s = new StringBuilder(buffer.substring(start, buffer.pos));
+                }
+                if (buffer.isConsumed()) {
                     break;
                 }
-                s.append(c);
-            } else {
+                s.append(buffer.read());
+            } else if (s != null) {
                 s.append(c);
             }
         }
-        return s.toString();
+        return s == null ? buffer.substring(start, buffer.pos + 1) : s.toString();
     }
 
-    private void appendFloatingPoint(StringBuilder numberBuffer) {
-        numberBuffer.append(buffer.read()); // adding the dot
-        Character c = buffer.readAhead();
-        while (c != null) {
-            if (c >= '0' && c <= '9' || c == '_') {
-                numberBuffer.append(c);
+    /**
+     * Read the digits of an integer in the radix, and its optional long suffix
+     * 
+     * @param p
+     *            the position of the number
+     */
+    private long readRadixNumber(int p, int radix) throws ParseException {
+        long n = 0;
+        long max = Long.MAX_VALUE / radix;
+        char c = buffer.readAhead();
+        int digit;
+        while ((digit = Character.digit(c, radix)) >= 0 || c == '_') {
+            if (c == '_') {
+                if (Character.digit(buffer.readAhead(2), radix) < 0) {
+                    throw misplacedUnderscore();
+                }
             } else {
-                break;
+                if (n > max || n * radix > Long.MAX_VALUE - digit) {
+                    throw new ParseException("number too large", p);
+                }
+                n = n * radix + digit;
             }
             buffer.skip();
             c = buffer.readAhead();
         }
-        Character c2 = buffer.readAhead(2);
-        Character c3 = buffer.readAhead(3);
-        if (c != null
-                && (c == 'E' || c == 'e')
-                && ((c2 == '+' || c2 == '-') && (c3 != null && c3 >= '0' && c3 <= '9') || (c2 != null && c2 >= '0' && c2 <= '9'))) {
-            numberBuffer.append(c);
+        if (c == 'l' || c == 'L') {
             buffer.skip();
-            if (c2 == '+' || c2 == '-') {
-                numberBuffer.append(c);
-                buffer.skip();
-                c = c3;
+        }
+        return n;
+    }
+
+    private JsonPathExpression readDecimalNumber() throws ParseException {
+        int p = buffer.pos;
+        long n = 0;
+        boolean overflow = false;
+        boolean underscore = false;
+        char c = buffer.readAhead();
+        while (isNum(c) || c == '_') {
+            if (c == '_') {
+                skipUnderscore();
+                underscore = true;
             } else {
-                c = c2;
-            }
-            while (c != null) {
-                if (c >= '0' && c <= '9') {
-                    numberBuffer.append(c);
-                } else {
-                    break;
+                if (n > (Long.MAX_VALUE - (c - '0')) / 10) {
+                    overflow = true;
                 }
+                n = n * 10 + (c - '0');
                 buffer.skip();
-                c = buffer.readAhead();
             }
+            c = buffer.readAhead();
+        }
+        if (c != '.' || !isNum(buffer.readAhead(2))) {
+            if (overflow) {
+                throw new ParseException("number too large", p);
+            }
+            return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(n));
         }
+        // double number: the digits are only scanned, their rounding being left to the JDK
+        buffer.skip();
+        underscore |= skipDigits();
         c = buffer.readAhead();
-        if (c != null && (c == 'f' || c == 'F' || c == 'd' || c == 'D')) {
-            numberBuffer.append(c);
+        char c2 = buffer.readAhead(2);
+        if ((c == 'e' || c == 'E') && (isNum(c2) || (c2 == '+' || c2 == '-') && isNum(buffer.readAhead(3)))) {
+            buffer.skip(isNum(c2) ? 1 : 2);
+            underscore |= skipDigits();
+            c = buffer.readAhead();
+        }
+        if (c == 'f' || c == 'F' || c == 'd' || c == 'D') {
             buffer.skip();
         }
+        String digits = buffer.substring(p + 1, buffer.pos + 1);
+        if (underscore) {
+            digits = digits.replace("_", "");
+        }
+        double d = Double.parseDouble(digits);
+        return new LiteralJPE(p, JsonNodeFactory.instance.numberNode(d));
+    }
+
+    /**
+     * Skip the decimal digits ahead, and the underscores between them
+     * 
+     * @return whether some underscore was skipped
+     */
+    private boolean skipDigits() throws ParseException {
+        boolean underscore = false;
+        char c = buffer.readAhead();
+        while (isNum(c) || c == '_') {
+            if (c == '_') {
+                skipUnderscore();
+                underscore = true;
+            } else {
+                buffer.skip();
+            }
+            c = buffer.readAhead();
+        }
+        return underscore;
+    }
+
+    /**
+     * Skip an underscore following a digit, which must be followed by a digit too
+     */
+    private void skipUnderscore() throws ParseException {
+        if (!isNum(buffer.readAhead(2))) {
+            throw misplacedUnderscore();
+        }
+        buffer.skip();
+    }
+
+    private ParseException misplacedUnderscore() {
+        return new ParseException("misplaced '_' in number", buffer.pos + 1);
     }
 
     private JsonPathExpression readSelectorExpr(JsonPathExpression expr) throws ParseException {
         buffer.skipWhiteSpace();
-        Character c = buffer.readAhead();
-        Character c2 = buffer.readAhead(2);
-        Character c3 = buffer.readAhead(3);
-        if (c != null && c2 != null && c3 != null && c == '.' && c2 == '.' && c3 == '*') {
+        char c = buffer.readAhead();
+        char c2 = buffer.readAhead(2);
+        char c3 = buffer.readAhead(3);
+        if (c == '.' && c2 == '.' && c3 == '*') {
             int p = buffer.pos;
             buffer.skip(3);
             expr = new DescendingJPE(p, expr);
-        } else if (c != null && c2 != null && c == '.' && c2 == '*') {
+        } else if (c == '.' && c2 == '*') {
             int p = buffer.pos;
             buffer.skip(2);
             expr = new WildcardFieldJPE(p, expr);
-        } else if (c != null && c == '.') {
+        } else if (c == '.') {
             int p = buffer.pos;
             buffer.skip();
             buffer.skipWhiteSpace();
             c = buffer.readAhead();
-            if (c != null && c >= '0' && c <= '9') {
+            if (c >= '0' && c <= '9') {
                 int i = readInt();
                 expr = new IndexSelectorJPE(p, expr, i);
             } else {
                 String id = readIdentifier();
                 expr = new FieldSelectorJPE(p, expr, id);
             }
-        } else if (c != null && c == '[') {
+        } else if (c == '[') {
             buffer.skip();
             buffer.skipWhiteSpace();
             c = buffer.readAhead();
             c2 = buffer.readAhead(2);
-            if (c != null && c == '*') {
+            if (c == '*') {
                 int p = buffer.pos;
                 buffer.skip();
                 expr = new WildcardArrayJPE(p, expr);
-            } else if (c != null && c2 != null && c == '?' && c2 == '(') {
+            } else if (c == '?' && c2 == '(') {
                 int p = buffer.pos;
                 buffer.skip(2);
                 JsonPathExpression filter = readExpr();
                 expr = new FilterJPE(p, expr, filter);
                 buffer.readExpected(')', "filter");
-            } else if (c != null && c == '(') {
+            } else if (c == '(') {
                 int p = buffer.pos;
                 buffer.skip();
                 JsonPathExpression indexExpr = readExpr();
                 expr = new FieldSelectorJPE(p, expr, indexExpr);
                 buffer.skipWhiteSpace();
                 buffer.readExpected(')', "expression");
-            } else if (c != null && c == '\'') {
+            } else if (c == '\'') {
                 int p = buffer.pos;
                 buffer.skip();
                 String field = readEscaped('\'');
                 expr = new FieldSelectorJPE(p, expr, field);
                 buffer.readExpected('\'', "string");
-            } else if (c != null && c == '\"') {
+            } else if (c == '\"') {
                 int p = buffer.pos;
                 buffer.skip();
                 String field = readEscaped('\"');
                 expr = new FieldSelectorJPE(p, expr, field);
                 buffer.readExpected('\"', "string");
-            } else if (c != null && (c == '-' || c >= '0' && c <= '9')) {
+            } else if ((c == '-' || c >= '0' && c <= '9')) {
                 int p = buffer.pos;
                 int i = readInt();
                 buffer.skipWhiteSpace();
                 c = buffer.readAhead();
-                if (c != null && c == ':') {
+                if (c == ':') {
                     buffer.skip();
                     buffer.skipWhiteSpace();
                     Integer end = null;
                     Integer step = null;
                     c = buffer.readAhead();
-                    if (c != null && (c == '-' || c >= '0' && c <= '9')) {
+                    if ((c == '-' || c >= '0' && c <= '9')) {
                         end = readInt();
                     }
                     buffer.skipWhiteSpace();
                     c = buffer.readAhead();
-                    if (c != null && c == ':') {
+                    if (c == ':') {
                         buffer.skip();
                         buffer.skipWhiteSpace();
                         c = buffer.readAhead();
-                        if (c != null && (c == '-' || c >= '0' && c <= '9')) {
+                        if ((c == '-' || c >= '0' && c <= '9')) {
                             step = readInt();
                         }
                     }
@@ -649,59 +647,57 @@ public class JsonPathExpressionParser {
         return expr;
     }
 
-    private StringBuilder startReadNumber() {
-        StringBuilder numberBuffer = new StringBuilder();
-        Character c = null;
-        while ((c = buffer.readAhead()) != null) {
-            if (c >= '0' && c <= '9' || c == '_') {
-                numberBuffer.append(c);
+    private int readInt() throws ParseException {
+        boolean negative = false;
+        if (buffer.readAhead() == '-') {
+            buffer.skip();
+            buffer.skipWhiteSpace();
+            negative = true;
+        }
+        int p = buffer.pos;
+        long n = 0;
+        boolean digits = false;
+        char c = buffer.readAhead();
+        while (isNum(c) || c == '_') {
+            if (c == '_') {
+                if (!digits || !isNum(buffer.readAhead(2))) {
+                    throw misplacedUnderscore();
+                }
             } else {
-                break;
+                digits = true;
+                n = Math.min(n * 10 + (c - '0'), Integer.MAX_VALUE + 1L);
             }
             buffer.skip();
             c = buffer.readAhead();
         }
-        return numberBuffer;
-    }
-
-    private int readInt() {
-        boolean negative = false;
-        Character c = buffer.readAhead();
-        if (c == '-') {
-            buffer.skip();
-            buffer.skipWhiteSpace();
-            negative = true;
+        if (!digits) {
+            throw new ParseException("expecting an integer", p);
         }
-        StringBuilder numberBuffer = startReadNumber();
-        int n = Integer.parseInt(numberBuffer.toString());
-        if (negative) {
-            return -n;
+        if (n > Integer.MAX_VALUE) {
+            throw new ParseException("integer too large", p);
         }
-        return n;
+        return negative ? (int) -n : (int) n;
     }
 
     private String readIdentifier() throws ParseException {
-        StringBuilder name = new StringBuilder();
-        Character c = null;
-        while ((c = buffer.readAhead()) != null) {
-            if (!(isAlpha(c) || name.length() > 0 && isNum(c))) {
-                break;
-            }
-            buffer.skip();
-            name.append(c);
-        }
-        if (name.length() == 0) {
+        int start = buffer.pos + 1;
+        char c = buffer.readAhead();
+        if (!isAlpha(c)) {
             throw new ParseException("expecting an identifier", buffer.pos);
         }
-        return name.toString();
+        do {
+            buffer.skip();
+            c = buffer.readAhead();
+        } while (isAlpha(c) || isNum(c));
+        return buffer.substring(start, buffer.pos + 1);
     }
 
-    private boolean isAlpha(Character c) {
-        return c != null && (c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z');
+    private static boolean isAlpha(char c) {
+        return c == '_' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z';
     }
 
-    private boolean isNum(Character c) {
-        return c != null && (c >= '0' && c <= '9');
+    private static boolean isNum(char c) {
+        return c >= '0' && c <= '9';
     }
 
     private List<JsonPathExpression> readArguments() throws ParseException {
@@ -0,0 +1,256 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.jsonpath.JsonPathSingleValue;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.internal.BooleanJPE.BooleanOp;
+import com.fasterxml.jackson.jsonpath.internal.UnaryJPE.UnaryOp;
+
+/**
+ * Simplifies a parsed expression tree so that it does less work at evaluation time.
+ * <p>
+ * The operators which only have literals as operands are folded into a literal, the ternaries with a constant
+ * condition are replaced by the branch they would take, the double negations and the neutral boolean operands are
+ * removed where the result is only used as a boolean, and the field selectors with a constant numeric index are
+ * turned into index selectors. The field selectors and the filters applied on <code>..*</code> are fused with it,
+ * so that they are applied while walking the tree. An operator which fails on its literal operands, like a division
+ * by zero, is kept as is so the error is still raised at evaluation time.
+ * <p>
+ * In the predicate of a filter, the subexpressions which don't depend on the filtered element, like
+ * <code>$.limits.max</code> in <code>[?(@.price &lt; $.limits.max)]</code>, are marked as {@link InvariantJPE}s so
+ * that they are evaluated once per evaluation of the filter rather than once per element.
+ */
+class JsonPathOptimizer {
+
+    private JsonPathOptimizer() {
+        // static only
+    }
+
+    static JsonPathExpression optimize(JsonPathExpression expr) {
+        return optimize(expr, false);
+    }
+
+    static void optimize(List<JsonPathExpression> exprs) {
+        for (int i = 0; i < exprs.size(); i++) {
+            exprs.set(i, optimize(exprs.get(i)));
+        }
+    }
+
+    /**
+     * @param asBoolean
+     *            <code>true</code> if only the truthiness of the value of the expression matters
+     */
+    private static JsonPathExpression optimize(JsonPathExpression expr, boolean asBoolean) {
+        JsonPathExpression[] children = expr.getChildren();
+        if (children.length > 0) {
+            boolean changed = false;
+            JsonPathExpression[] optimizedChildren = new JsonPathExpression[children.length];
+            for (int i = 0; i < children.length; i++) {
+                optimizedChildren[i] = optimize(children[i], isBooleanOperand(expr, i));
+                changed |= optimizedChildren[i] != children[i];
+            }
+            if (changed) {
+                expr = expr.withChildren(optimizedChildren);
+            }
+        }
+        if (isFoldable(expr)) {
+            return fold(expr);
+        }
+        if (expr instanceof TernaryJPE) {
+            children = expr.getChildren();
+            if (children[0] instanceof LiteralJPE) {
+                return expr.asBoolean(((LiteralJPE) children[0]).getLiteral()) ? children[1] : children[2];
+            }
+            return expr;
+        }
+        if (expr instanceof UnaryJPE && ((UnaryJPE) expr).getOp() == UnaryOp.NOT) {
+            JsonPathExpression negated = expr.getChildren()[0];
+            if (negated instanceof UnaryJPE && ((UnaryJPE) negated).getOp() == UnaryOp.NOT) {
+                JsonPathExpression operand = negated.getChildren()[0];
+                if (asBoolean || isBoolean(operand)) {
+                    return operand;
+                }
+            }
+            return expr;
+        }
+        if (expr instanceof BooleanJPE && !expr.isVector()) {
+            return simplifyBoolean((BooleanJPE) expr, asBoolean);
+        }
+        if (expr instanceof FieldSelectorJPE) {
+            FieldSelectorJPE selector = (FieldSelectorJPE) expr;
+            if (selector.getIndex() instanceof LiteralJPE) {
+                JsonNode index = ((LiteralJPE) selector.getIndex()).getLiteral();
+                if (index.isNumber()) {
+                    return new IndexSelectorJPE(selector.position, selector.getObject(), index.asInt());
+                }
+                if (index.isTextual() && selector.getObject() instanceof DescendingJPE) {
+                    JsonPathExpression object = ((DescendingJPE) selector.getObject()).getObject();
+                    return new DescendingFieldJPE(selector.position, object, index.asText());
+                }
+            }
+            return expr;
+        }
+        if (expr instanceof FilterJPE) {
+            FilterJPE filter = hoistInvariants((FilterJPE) expr);
+            if (filter.getObject() instanceof DescendingJPE) {
+                JsonPathExpression object = ((DescendingJPE) filter.getObject()).getObject();
+                return new DescendingFilterJPE(filter.position, object, filter.getFilter(), filter.getInvariants());
+            }
+            return filter;
+        }
+        return expr;
+    }
+
+    private static FilterJPE hoistInvariants(FilterJPE filter) {
+        int[] nextSlot = new int[] { filter.getInvariants() };
+        JsonPathExpression predicate = hoist(filter.getFilter(), nextSlot);
+        if (predicate == filter.getFilter()) {
+            return filter;
+        }
+        return filter.withFilter(predicate, nextSlot[0]);
+    }
+
+    /**
+     * Wraps the largest subexpressions which don't depend on the filtered element into {@link InvariantJPE}s
+     */
+    private static JsonPathExpression hoist(JsonPathExpression expr, int[] nextSlot) {
+        if (isInvariant(expr)) {
+            if (expr instanceof LiteralJPE || expr instanceof RootJPE || expr instanceof InvariantJPE) {
+                // nothing to save
+                return expr;
+            }
+            return new InvariantJPE(nextSlot[0]++, expr);
+        }
+        JsonPathExpression[] children = expr.getChildren();
+        // the predicate of a nested filter is evaluated in its own frame, and it has been hoisted already
+        int n = expr instanceof FilterJPE ? 1 : children.length;
+        boolean changed = false;
+        JsonPathExpression[] hoistedChildren = children.clone();
+        for (int i = 0; i < n; i++) {
+            hoistedChildren[i] = hoist(children[i], nextSlot);
+            changed |= hoistedChildren[i] != children[i];
+        }
+        if (changed) {
+            return expr.withChildren(hoistedChildren);
+        }
+        return expr;
+    }
+
+    /**
+     * @return <code>true</code> if the value of the expression is the same whatever the element being filtered
+     */
+    private static boolean isInvariant(JsonPathExpression expr) {
+        if (expr instanceof ThisJPE || expr instanceof BoundValueJPE) {
+            return false;
+        }
+        if (expr instanceof FunctionCallJPE && ((FunctionCallJPE) expr).getFunction().isContextDependent()) {
+            return false;
+        }
+        JsonPathExpression[] children = expr.getChildren();
+        // the elements seen by the predicate of a nested filter only depend on its object
+        int n = expr instanceof FilterJPE ? 1 : children.length;
+        for (int i = 0; i < n; i++) {
+            if (!isInvariant(children[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBooleanOperand(JsonPathExpression expr, int child) {
+        if (expr instanceof FilterJPE) {
+            return child == 1;
+        }
+        if (expr instanceof TernaryJPE) {
+            return child == 0;
+        }
+        if (expr instanceof UnaryJPE) {
+            return ((UnaryJPE) expr).getOp() == UnaryOp.NOT;
+        }
+        return expr instanceof BooleanJPE;
+    }
+
+    /**
+     * @return <code>true</code> if the expression always evaluates to boolean values
+     */
+    private static boolean isBoolean(JsonPathExpression expr) {
+        if (expr instanceof UnaryJPE) {
+            return ((UnaryJPE) expr).getOp() == UnaryOp.NOT;
+        }
+        if (expr instanceof LiteralJPE) {
+            return ((LiteralJPE) expr).getLiteral().isBoolean();
+        }
+        return expr instanceof CompareJPE || expr instanceof BooleanJPE;
+    }
+
+    private static boolean isFoldable(JsonPathExpression expr) {
+        if (!(expr instanceof ArithmeticJPE || expr instanceof ShiftJPE || expr instanceof BitwiseJPE
+                || expr instanceof UnaryJPE || expr instanceof CompareJPE || expr instanceof BooleanJPE)) {
+            return false;
+        }
+        for (JsonPathExpression child : expr.getChildren()) {
+            if (!(child instanceof LiteralJPE)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static JsonPathExpression fold(JsonPathExpression expr) {
+        JsonPathValue value;
+        try {
+            value = expr.eval(new JsonPathContext(MissingNode.getInstance()));
+        } catch (RuntimeException e) {
+            // let it fail at evaluation time
+            return expr;
+        }
+        if (!(value instanceof JsonPathSingleValue) || value.asNode().isMissingNode()) {
+            return expr;
+        }
+        return new LiteralJPE(expr.position, value.asNode());
+    }
+
+    /**
+     * Short-circuits the boolean operators with a constant left operand, and removes a neutral constant right
+     * operand. The operand left alone only replaces the operator if it evaluates to a boolean, or if only its
+     * truthiness is used.
+     */
+    private static JsonPathExpression simplifyBoolean(BooleanJPE expr, boolean asBoolean) {
+        JsonPathExpression left = expr.getChildren()[0];
+        JsonPathExpression right = expr.getChildren()[1];
+        // the value for which the operator doesn't depend on its other operand: false for &&, true for ||
+        boolean absorbing = expr.getOp() == BooleanOp.OR;
+        if (left instanceof LiteralJPE) {
+            if (expr.asBoolean(((LiteralJPE) left).getLiteral()) == absorbing) {
+                return new LiteralJPE(expr.position, JsonNodeFactory.instance.booleanNode(absorbing));
+            }
+            if (asBoolean || isBoolean(right)) {
+                return right;
+            }
+            return expr;
+        }
+        if (right instanceof LiteralJPE && expr.asBoolean(((LiteralJPE) right).getLiteral()) != absorbing
+                && (asBoolean || isBoolean(left))) {
+            return left;
+        }
+        return expr;
+    }
+}
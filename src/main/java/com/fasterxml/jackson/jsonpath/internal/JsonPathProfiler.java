@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.JsonPathProfile;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+
+/**
+ * Evaluates an expression with every node of its tree wrapped in a probe, which counts the invocations of the node,
+ * the values it returned, the time spent and the bytes allocated by the thread, children included.
+ * <p>
+ * The allocated bytes are read from the {@link com.sun.management.ThreadMXBean} of the JVM when it supports it.
+ */
+public class JsonPathProfiler {
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationCounter();
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+            if (threads instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) threads;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+        } catch (LinkageError e) {
+            // not a HotSpot like JVM
+        }
+        return null;
+    }
+
+    private JsonPathProfiler() {
+        // static only
+    }
+
+    /**
+     * Evaluate the expression sequentially in the context, measuring each node of its tree
+     */
+    public static JsonPathProfile profile(JsonPathExpression expr, JsonPathContext context) {
+        Probe probe = probe(expr);
+        probe.eval(context);
+        return probe.toProfile();
+    }
+
+    private static Probe probe(JsonPathExpression expr) {
+        JsonPathExpression[] children = expr.getChildren();
+        Probe[] probes = new Probe[children.length];
+        for (int i = 0; i < children.length; i++) {
+            probes[i] = probe(children[i]);
+        }
+        return new Probe(children.length == 0 ? expr : expr.withChildren(probes), probes);
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static class Probe extends JsonPathExpression {
+
+        private final JsonPathExpression expr;
+
+        private final Probe[] children;
+
+        private long invocations;
+
+        private long outputCardinality;
+
+        private long nanos;
+
+        private long allocatedBytes;
+
+        Probe(JsonPathExpression expr, Probe[] children) {
+            super(expr.position, expr.isVector());
+            this.expr = expr;
+            this.children = children;
+        }
+
+        @Override
+        JsonPathExpression[] getChildren() {
+            // seen through by the lookups of the parent, like the context dependency of a filter
+            return new JsonPathExpression[] { expr };
+        }
+
+        @Override
+        public JsonPathValue eval(JsonPathContext context) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            JsonPathValue value = expr.eval(context);
+            record(start, allocated, cardinality(value));
+            return value;
+        }
+
+        @Override
+        public JsonPathValue eval(JsonPathContext context, int limit) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            JsonPathValue value = expr.eval(context, limit);
+            record(start, allocated, cardinality(value));
+            return value;
+        }
+
+        @Override
+        JsonNode evalNode(JsonPathContext context) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            JsonNode node = expr.evalNode(context);
+            record(start, allocated, node.isMissingNode() ? 0 : 1);
+            return node;
+        }
+
+        @Override
+        boolean evalAsBoolean(JsonPathContext context) {
+            long allocated = allocatedBytes();
+            long start = System.nanoTime();
+            boolean b = expr.evalAsBoolean(context);
+            record(start, allocated, 1);
+            return b;
+        }
+
+        private static int cardinality(JsonPathValue value) {
+            if (value instanceof JsonPathVectorValue) {
+                return ((JsonPathVectorValue) value).size();
+            }
+            return value.asNode().isMissingNode() ? 0 : 1;
+        }
+
+        private void record(long start, long allocated, int cardinality) {
+            nanos += System.nanoTime() - start;
+            allocatedBytes += allocatedBytes() - allocated;
+            outputCardinality += cardinality;
+            invocations++;
+        }
+
+        JsonPathProfile toProfile() {
+            List<JsonPathProfile> childProfiles = new ArrayList<JsonPathProfile>(children.length);
+            for (Probe child : children) {
+                childProfiles.add(child.toProfile());
+            }
+            String type = expr.getClass().getSimpleName();
+            if (type.endsWith("JPE")) {
+                type = type.substring(0, type.length() - 3);
+            }
+            return new JsonPathProfile(type, expr.toString(), position, invocations, outputCardinality, nanos,
+                    THREADS == null ? -1 : allocatedBytes, childProfiles);
+        }
+
+        @Override
+        public String toString() {
+            return expr.toString();
+        }
+    }
+}
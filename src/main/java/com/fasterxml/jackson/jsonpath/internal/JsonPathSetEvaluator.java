@@ -0,0 +1,667 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.MissingNode;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.jsonpath.CompileMode;
+import com.fasterxml.jackson.jsonpath.JsonPathFunction;
+import com.fasterxml.jackson.jsonpath.JsonPathListener;
+import com.fasterxml.jackson.jsonpath.JsonPathParallelism;
+import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
+import com.fasterxml.jackson.jsonpath.JsonPathSingleValue;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+import com.fasterxml.jackson.jsonpath.internal.func.NameJPFP;
+import com.fasterxml.jackson.jsonpath.internal.func.PosJPFP;
+
+/**
+ * Evaluates several paths at once, in a single walk of the json tree or in a single read of the json tokens.
+ * <p>
+ * The leading selectors of the paths which only depend on field names and array indexes (fields, positive indexes
+ * and wildcards) are merged into a trie, so that the selectors shared by several paths are evaluated once. The rest
+ * of each path is then evaluated as usual on the values reached by its leading selectors.
+ * <p>
+ * When evaluated on a stream of tokens, the trie is matched while the tokens are read, the subtrees which cannot
+ * match being skipped, and only the values reached by the leading selectors are read as {@link JsonNode}. As the
+ * document root is never built, the functions called in the rest of the paths then get a context without root.
+ */
+public class JsonPathSetEvaluator {
+
+    private final ObjectMapper mapper;
+
+    private final JsonPathExpression[] exprs;
+
+    // for each path, the trie nodes matched by its leading selectors, null if the path is not in the trie
+    private final TrieNode[][] chains;
+
+    // for each path, the rest of the path evaluated on the value of its last trie node, null if none
+    private final JsonPathExpression[] remainings;
+
+    private final JsonPathParallelism[] parallelisms;
+
+    // for each path, whether its value is known as soon as its last trie node matches a value
+    private final boolean[] singles;
+
+    private final TrieNode root;
+
+    private final List<TrieNode> nodes = new ArrayList<TrieNode>();
+
+    private boolean streamable = true;
+
+    /**
+     * @param compileModes
+     *            for each path, how to evaluate what cannot be evaluated in the trie
+     * @param parallelisms
+     *            for each path, how to evaluate in parallel what cannot be evaluated in the trie, <code>null</code>
+     *            items for a sequential evaluation
+     */
+    public JsonPathSetEvaluator(List<JsonPathExpression> exprs, List<CompileMode> compileModes,
+            List<JsonPathParallelism> parallelisms, ObjectMapper mapper) {
+        this.mapper = mapper;
+        this.exprs = exprs.toArray(new JsonPathExpression[exprs.size()]);
+        this.chains = new TrieNode[exprs.size()][];
+        this.remainings = new JsonPathExpression[exprs.size()];
+        this.parallelisms = parallelisms.toArray(new JsonPathParallelism[parallelisms.size()]);
+        this.singles = new boolean[exprs.size()];
+        this.root = newNode(null);
+        for (int i = 0; i < this.exprs.length; i++) {
+            addToTrie(i);
+            singles[i] = isSingle(i);
+            if (compileModes.get(i) == CompileMode.COMPILED) {
+                this.exprs[i] = JsonPathCompiler.compile(this.exprs[i]);
+                if (remainings[i] != null) {
+                    remainings[i] = JsonPathCompiler.compile(remainings[i]);
+                }
+            }
+        }
+    }
+
+    private void addToTrie(int i) {
+        LinkedList<SelectorJPE> chain = new LinkedList<SelectorJPE>();
+        JsonPathExpression e = exprs[i];
+        while (e instanceof SelectorJPE) {
+            chain.addFirst((SelectorJPE) e);
+            e = ((SelectorJPE) e).getObject();
+        }
+        if (!(e instanceof RootJPE)) {
+            streamable = false;
+            return;
+        }
+        for (SelectorJPE selector : chain) {
+            if (isRootDependent(selector)) {
+                streamable = false;
+            }
+        }
+        List<TrieNode> trieChain = new ArrayList<TrieNode>();
+        TrieNode node = root;
+        trieChain.add(node);
+        Iterator<SelectorJPE> it = chain.iterator();
+        SelectorJPE selector = null;
+        while (it.hasNext()) {
+            selector = it.next();
+            if (!TrieNode.isMergeable(selector)) {
+                break;
+            }
+            node = node.getOrCreateChild(selector, this);
+            trieChain.add(node);
+            selector = null;
+        }
+        node.target = true;
+        chains[i] = trieChain.toArray(new TrieNode[trieChain.size()]);
+        if (selector != null) {
+            JsonPathExpression remaining = new BoundValueJPE(selector.getObject());
+            remaining = selector.withObject(remaining);
+            while (it.hasNext()) {
+                remaining = it.next().withObject(remaining);
+            }
+            remainings[i] = remaining;
+        }
+    }
+
+    /**
+     * A path only made of selectors of a single value matches at most one value, so its value is complete once its
+     * last trie node is reached
+     */
+    private boolean isSingle(int i) {
+        if (chains[i] == null || remainings[i] != null) {
+            return false;
+        }
+        for (TrieNode node : chains[i]) {
+            if (node.selector != null && node.selector.isVector()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isRootDependent(SelectorJPE selector) {
+        if (selector instanceof FieldSelectorJPE) {
+            // the index expression is evaluated in the context of the root
+            JsonPathExpression index = ((FieldSelectorJPE) selector).getIndex();
+            return readsRoot(index) || JsonPathExpression.contains(index, ThisJPE.class);
+        }
+        if (selector instanceof FilterJPE) {
+            return readsRoot(((FilterJPE) selector).getFilter());
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the expression may read the root of the context, which is missing when streaming. The functions
+     *         depending on the context are assumed to read it, but for the built-in ones known not to.
+     */
+    private static boolean readsRoot(JsonPathExpression expr) {
+        if (expr instanceof RootJPE) {
+            return true;
+        }
+        if (expr instanceof FunctionCallJPE) {
+            JsonPathFunction function = ((FunctionCallJPE) expr).getFunction();
+            if (function.isContextDependent() && function != PosJPFP.FUNCTION && function != NameJPFP.FUNCTION) {
+                return true;
+            }
+        }
+        for (JsonPathExpression child : expr.getChildren()) {
+            if (readsRoot(child)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private TrieNode newNode(SelectorJPE selector) {
+        TrieNode node = new TrieNode(nodes.size(), selector);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * @return true if the paths can be evaluated without building the whole json tree
+     */
+    public boolean isStreamable() {
+        return streamable;
+    }
+
+    /**
+     * @return the values of each path, in the order of the paths
+     */
+    public List<JsonPathValue> eval(JsonNode json) {
+        return eval(json, null);
+    }
+
+    private List<JsonPathValue> eval(JsonNode json, JsonPathCounters counters) {
+        Evaluation evaluation = new Evaluation(null, counters);
+        apply(json, root, null, evaluation);
+        return evaluation.results(json);
+    }
+
+    /**
+     * Evaluate the paths on the json value starting at the current token of the parser, or at the next one if the
+     * parser has no current token. The parser is left on the last token of the value.
+     * 
+     * @return the values of each path, in the order of the paths
+     */
+    public List<JsonPathValue> eval(JsonParser parser) throws IOException {
+        return eval(parser, null);
+    }
+
+    /**
+     * Evaluate the paths as {@link #eval(JsonParser)} does, each value being also given to the listener as soon as it
+     * is known: the paths only made of field names and indexes as soon as the value they select is read, the other
+     * paths at the end of the json value.
+     * 
+     * @param listener
+     *            the listener of the values, or <code>null</code>
+     */
+    public List<JsonPathValue> eval(JsonParser parser, JsonPathListener listener) throws IOException {
+        return eval(parser, listener, null);
+    }
+
+    /**
+     * Evaluate the paths as {@link #eval(JsonParser, JsonPathListener)} does, counting the work done
+     * 
+     * @param counters
+     *            the counters of the work done, or <code>null</code>
+     */
+    public List<JsonPathValue> eval(JsonParser parser, JsonPathListener listener, JsonPathCounters counters)
+            throws IOException {
+        if (!parser.hasCurrentToken()) {
+            parser.nextToken();
+        }
+        if (!streamable) {
+            List<JsonPathValue> results = eval(readNode(parser), counters);
+            if (listener != null) {
+                for (int i = 0; i < results.size(); i++) {
+                    listener.onValue(i, results.get(i));
+                }
+            }
+            return results;
+        }
+        Evaluation evaluation = new Evaluation(listener, counters);
+        stream(parser, Collections.singletonList(root), Collections.<String> singletonList(null), evaluation);
+        return evaluation.results(MissingNode.getInstance());
+    }
+
+    private void stream(JsonParser parser, List<TrieNode> matched, List<String> names, Evaluation evaluation)
+            throws IOException {
+        JsonToken token = parser.getCurrentToken();
+        boolean read = false;
+        for (TrieNode node : matched) {
+            if (node.target || !node.accepts(token)) {
+                read = true;
+            }
+        }
+        if (read) {
+            // the value is needed, or the selectors will report a type mismatch
+            JsonNode value = readNode(parser);
+            for (int i = 0; i < matched.size(); i++) {
+                apply(value, matched.get(i), names.get(i), evaluation);
+            }
+            return;
+        }
+
+        List<TrieNode> subMatched = new ArrayList<TrieNode>();
+        List<String> subNames = new ArrayList<String>();
+        if (token == JsonToken.START_OBJECT) {
+            int stamp = evaluation.nextStamp++;
+            List<Contribution> outerRecording = evaluation.recording;
+            // what the value of each matched field contributes, in the order of the first occurrences of the fields,
+            // a duplicated field replacing the value of its previous occurrence as in an ObjectNode
+            Map<String, List<Contribution>> fieldContributions = null;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                for (TrieNode node : matched) {
+                    List<TrieNode> sameField = node.fields == null ? null : node.fields.get(field);
+                    if (sameField != null) {
+                        for (TrieNode child : sameField) {
+                            evaluation.stamps[child.id] = stamp;
+                            subMatched.add(child);
+                            subNames.add(null);
+                        }
+                    }
+                    for (TrieNode child : node.anyFields) {
+                        subMatched.add(child);
+                        subNames.add(field);
+                    }
+                }
+                if (subMatched.isEmpty()) {
+                    parser.skipChildren();
+                } else {
+                    evaluation.recording = new ArrayList<Contribution>();
+                    stream(parser, subMatched, subNames, evaluation);
+                    if (fieldContributions == null) {
+                        fieldContributions = new LinkedHashMap<String, List<Contribution>>();
+                    }
+                    fieldContributions.put(field, evaluation.recording);
+                    evaluation.recording = outerRecording;
+                    subMatched = new ArrayList<TrieNode>();
+                    subNames = new ArrayList<String>();
+                }
+            }
+            if (fieldContributions != null) {
+                for (List<Contribution> contributions : fieldContributions.values()) {
+                    evaluation.replay(contributions);
+                }
+            }
+            for (TrieNode node : matched) {
+                if (node.fields != null) {
+                    for (List<TrieNode> sameField : node.fields.values()) {
+                        for (TrieNode child : sameField) {
+                            if (evaluation.stamps[child.id] != stamp) {
+                                apply(MissingNode.getInstance(), child, null, evaluation);
+                            }
+                        }
+                    }
+                }
+            }
+        } else {
+            int n = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                for (TrieNode node : matched) {
+                    for (TrieNode child : node.indexes) {
+                        if (child.index == n) {
+                            subMatched.add(child);
+                            subNames.add(null);
+                        }
+                    }
+                    for (TrieNode child : node.anyIndexes) {
+                        subMatched.add(child);
+                        subNames.add(Integer.toString(n));
+                    }
+                }
+                if (subMatched.isEmpty()) {
+                    parser.skipChildren();
+                } else {
+                    stream(parser, subMatched, subNames, evaluation);
+                    subMatched = new ArrayList<TrieNode>();
+                    subNames = new ArrayList<String>();
+                }
+                n++;
+            }
+            for (TrieNode node : matched) {
+                for (TrieNode child : node.indexes) {
+                    if (child.index >= n) {
+                        evaluation.fail(child, child.selector.indexOutOfBound(child.index, n));
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Continue the matching of the trie on a value matched by the node
+     */
+    private void apply(JsonNode value, TrieNode node, String name, Evaluation evaluation) {
+        if (node.target) {
+            evaluation.collect(node, value, name);
+        }
+        if (value.isMissingNode() && node.selector != null && node.selector.isVector()) {
+            // missing elements of a vector are just ignored
+            return;
+        }
+        for (TrieNode child : node.children) {
+            JsonPathValue childValue;
+            try {
+                childValue = child.selector.compute(evaluation.context, new JsonNode[] { value });
+            } catch (JsonPathRuntimeException e) {
+                evaluation.fail(child, e);
+                continue;
+            }
+            if (childValue instanceof JsonPathVectorValue) {
+                JsonPathVectorValue vectorValue = (JsonPathVectorValue) childValue;
+                int n = 0;
+                for (JsonNode subValue : vectorValue.getNodes()) {
+                    apply(subValue, child, vectorValue.getName(n++), evaluation);
+                }
+            } else {
+                apply(childValue.asNode(), child, null, evaluation);
+            }
+        }
+    }
+
+    private JsonNode readNode(JsonParser parser) throws IOException {
+        JsonNode node = mapper.readTree(parser);
+        if (node == null) {
+            return NullNode.getInstance();
+        }
+        return node;
+    }
+
+    /**
+     * State of the evaluation on one document
+     */
+    private class Evaluation {
+
+        private final JsonPathContext context = new JsonPathContext(MissingNode.getInstance());
+
+        private final JsonPathVectorValue[] values = new JsonPathVectorValue[nodes.size()];
+
+        private final JsonPathRuntimeException[] errors = new JsonPathRuntimeException[nodes.size()];
+
+        // marks the field selectors which already matched in the object being read
+        private final int[] stamps = new int[nodes.size()];
+
+        private int nextStamp = 1;
+
+        private final JsonPathListener listener;
+
+        private final JsonPathCounters counters;
+
+        // the paths whose value was already given to the listener
+        private final boolean[] notified = new boolean[exprs.length];
+
+        // the values given to the listener, which a duplicated field may have replaced since
+        private final JsonNode[] notifiedValues = new JsonNode[exprs.length];
+
+        // while streaming the value of a field, where its contributions are kept until the object is read
+        private List<Contribution> recording;
+
+        Evaluation(JsonPathListener listener, JsonPathCounters counters) {
+            this.listener = listener;
+            this.counters = counters;
+            context.setCounters(counters);
+        }
+
+        void collect(TrieNode node, JsonNode value, String name) {
+            if (listener != null) {
+                notifyFirst(node, value);
+            }
+            if (recording != null) {
+                recording.add(new Contribution(node, value, name, null));
+                return;
+            }
+            if (values[node.id] == null) {
+                values[node.id] = new JsonPathVectorValue();
+            }
+            values[node.id].add(value, name);
+        }
+
+        /**
+         * Give the listener the value of the paths of a single value ending on the node, as soon as it is read
+         */
+        private void notifyFirst(TrieNode node, JsonNode value) {
+            for (int i = 0; i < exprs.length; i++) {
+                if (singles[i] && !notified[i] && chains[i][chains[i].length - 1] == node) {
+                    notified[i] = true;
+                    notifiedValues[i] = value;
+                    listener.onValue(i, new JsonPathSingleValue(value));
+                }
+            }
+        }
+
+        void fail(TrieNode node, JsonPathRuntimeException error) {
+            if (recording != null) {
+                recording.add(new Contribution(node, null, null, error));
+            } else if (errors[node.id] == null) {
+                errors[node.id] = error;
+            }
+        }
+
+        void replay(List<Contribution> contributions) {
+            for (Contribution contribution : contributions) {
+                if (contribution.error != null) {
+                    fail(contribution.node, contribution.error);
+                } else {
+                    collect(contribution.node, contribution.value, contribution.name);
+                }
+            }
+        }
+
+        List<JsonPathValue> results(JsonNode json) {
+            List<JsonPathValue> results = new ArrayList<JsonPathValue>(exprs.length);
+            for (int i = 0; i < exprs.length; i++) {
+                if (chains[i] == null) {
+                    JsonPathContext treeContext = new JsonPathContext(json, parallelisms[i]);
+                    treeContext.setCounters(counters);
+                    results.add(exprs[i].eval(treeContext));
+                    continue;
+                }
+                // the tree evaluation applies the selectors one after the other on all the values, so the error to
+                // report is the first one raised by the first failing selector
+                for (TrieNode node : chains[i]) {
+                    if (errors[node.id] != null) {
+                        throw errors[node.id];
+                    }
+                }
+                TrieNode end = chains[i][chains[i].length - 1];
+                JsonPathValue value = values[end.id];
+                if (end.selector == null || !end.selector.isVector()) {
+                    Iterator<JsonNode> it = value == null ? null : value.getNodes().iterator();
+                    value = it != null && it.hasNext() ? new JsonPathSingleValue(it.next()) : JsonPathSingleValue.EMPTY;
+                } else if (value == null) {
+                    value = new JsonPathVectorValue();
+                }
+                if (remainings[i] != null) {
+                    JsonPathContext boundContext = BoundValueJPE.bind(json, value, parallelisms[i]);
+                    boundContext.setCounters(counters);
+                    value = remainings[i].eval(boundContext);
+                }
+                results.add(value);
+                if (listener != null && (!notified[i] || notifiedValues[i] != value.asNode())) {
+                    // not notified yet, or a later duplicated field replaced the notified value
+                    listener.onValue(i, value);
+                }
+            }
+            return results;
+        }
+    }
+
+    /**
+     * A value collected or an error raised while streaming the value of a field
+     */
+    private static class Contribution {
+
+        private final TrieNode node;
+
+        private final JsonNode value;
+
+        private final String name;
+
+        private final JsonPathRuntimeException error;
+
+        Contribution(TrieNode node, JsonNode value, String name, JsonPathRuntimeException error) {
+            this.node = node;
+            this.value = value;
+            this.name = name;
+            this.error = error;
+        }
+    }
+
+    private static class TrieNode {
+
+        private final int id;
+
+        private final SelectorJPE selector;
+
+        // the selected field, or null for any field
+        private final String field;
+
+        // the selected index, or -1 for any element
+        private final int index;
+
+        private final List<TrieNode> children = new ArrayList<TrieNode>();
+
+        private Map<String, List<TrieNode>> fields;
+
+        private final List<TrieNode> anyFields = new ArrayList<TrieNode>();
+
+        private final List<TrieNode> indexes = new ArrayList<TrieNode>();
+
+        private final List<TrieNode> anyIndexes = new ArrayList<TrieNode>();
+
+        // some path ends on this node
+        private boolean target;
+
+        TrieNode(int id, SelectorJPE selector) {
+            this.id = id;
+            this.selector = selector;
+            if (selector instanceof FieldSelectorJPE) {
+                JsonNode literal = ((LiteralJPE) ((FieldSelectorJPE) selector).getIndex()).getLiteral();
+                field = literal.isTextual() ? literal.asText() : null;
+                index = literal.isTextual() ? -1 : literal.asInt();
+            } else if (selector instanceof IndexSelectorJPE) {
+                field = null;
+                index = ((IndexSelectorJPE) selector).getIndex();
+            } else {
+                field = null;
+                index = -1;
+            }
+        }
+
+        static boolean isMergeable(SelectorJPE selector) {
+            if (selector instanceof FieldSelectorJPE) {
+                JsonPathExpression index = ((FieldSelectorJPE) selector).getIndex();
+                if (!(index instanceof LiteralJPE)) {
+                    return false;
+                }
+                JsonNode literal = ((LiteralJPE) index).getLiteral();
+                return literal.isTextual() || literal.isIntegralNumber() && literal.canConvertToInt()
+                        && literal.asInt() >= 0;
+            }
+            if (selector instanceof IndexSelectorJPE) {
+                return ((IndexSelectorJPE) selector).getIndex() >= 0;
+            }
+            return selector instanceof WildcardArrayJPE || selector instanceof WildcardFieldJPE;
+        }
+
+        /**
+         * Two selectors are merged if they select the same thing and would report the same errors
+         */
+        private boolean isSameAs(SelectorJPE other) {
+            if (selector.getClass() != other.getClass() || selector.position != other.position) {
+                return false;
+            }
+            TrieNode probe = new TrieNode(-1, other);
+            return index == probe.index && (field == null ? probe.field == null : field.equals(probe.field));
+        }
+
+        TrieNode getOrCreateChild(SelectorJPE childSelector, JsonPathSetEvaluator evaluator) {
+            for (TrieNode child : children) {
+                if (child.isSameAs(childSelector)) {
+                    return child;
+                }
+            }
+            TrieNode child = evaluator.newNode(childSelector);
+            children.add(child);
+            if (childSelector instanceof WildcardFieldJPE) {
+                anyFields.add(child);
+            } else if (childSelector instanceof WildcardArrayJPE) {
+                anyIndexes.add(child);
+            } else if (child.field != null) {
+                if (fields == null) {
+                    fields = new HashMap<String, List<TrieNode>>();
+                }
+                List<TrieNode> sameField = fields.get(child.field);
+                if (sameField == null) {
+                    sameField = new ArrayList<TrieNode>(1);
+                    fields.put(child.field, sameField);
+                }
+                sameField.add(child);
+            } else {
+                indexes.add(child);
+            }
+            return child;
+        }
+
+        /**
+         * @return true if the children of this node can be matched against the tokens of a value starting with that
+         *         token
+         */
+        boolean accepts(JsonToken token) {
+            if (token == JsonToken.START_OBJECT) {
+                return indexes.isEmpty() && anyIndexes.isEmpty();
+            }
+            if (token == JsonToken.START_ARRAY) {
+                return fields == null && anyFields.isEmpty();
+            }
+            return false;
+        }
+    }
+}
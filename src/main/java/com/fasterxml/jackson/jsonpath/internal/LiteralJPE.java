@@ -32,6 +32,11 @@ public class LiteralJPE extends JsonPathExpression {
         return new JsonPathSingleValue(literal);
     }
 
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        return literal;
+    }
+
     @Override
     public String toString() {
         return literal.toString();
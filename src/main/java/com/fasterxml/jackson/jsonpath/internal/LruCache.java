@@ -0,0 +1,171 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded and thread safe cache, evicting its least recently used values.
+ * <p>
+ * It is split into segments, each one holding its values in least recently used order, so that concurrent lookups
+ * rarely contend. A maximum size of zero disables the caching. The values are computed by the caller out of any lock,
+ * so concurrent misses on the same key may compute it twice, the first value put being kept.
+ */
+public class LruCache<K, V> {
+
+    private static final int SEGMENTS = 16;
+
+    private final int maximumSize;
+
+    private final Segment[] segments;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    @SuppressWarnings("unchecked")
+    public LruCache(int maximumSize) {
+        if (maximumSize < 0) {
+            throw new IllegalArgumentException("maximum size can not be negative");
+        }
+        this.maximumSize = maximumSize;
+        int nbSegments = Math.max(1, Math.min(SEGMENTS, maximumSize / SEGMENTS));
+        segments = (Segment[]) new LruCache<?, ?>.Segment[nbSegments];
+        for (int i = 0; i < nbSegments; i++) {
+            // spread the remainder so that the segments sum up to the maximum size
+            segments[i] = new Segment(maximumSize / nbSegments + (i < maximumSize % nbSegments ? 1 : 0));
+        }
+    }
+
+    private Segment segment(K key) {
+        return segments[(key.hashCode() & Integer.MAX_VALUE) % segments.length];
+    }
+
+    /**
+     * @return the cached value, <code>null</code> if not cached
+     */
+    public V get(K key) {
+        V value = null;
+        if (maximumSize > 0) {
+            Segment segment = segment(key);
+            synchronized (segment) {
+                value = segment.get(key);
+            }
+        }
+        if (value == null) {
+            missCount.incrementAndGet();
+        } else {
+            hitCount.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * @return the value already cached for the key if any, otherwise the value, which gets cached
+     */
+    public V putIfAbsent(K key, V value) {
+        if (maximumSize == 0) {
+            return value;
+        }
+        Segment segment = segment(key);
+        synchronized (segment) {
+            V previous = segment.get(key);
+            if (previous != null) {
+                return previous;
+            }
+            segment.put(key, value);
+        }
+        return value;
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return a copy of the cached entries, without counting hits nor touching their recency
+     */
+    public Map<K, V> snapshot() {
+        Map<K, V> snapshot = new HashMap<K, V>();
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                snapshot.putAll(segment);
+            }
+        }
+        return snapshot;
+    }
+
+    public void clear() {
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                segment.clear();
+            }
+        }
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "[size=" + size() + "/" + maximumSize + ", hits=" + hitCount + ", misses=" + missCount
+                + ", evictions=" + evictionCount + "]";
+    }
+
+    private class Segment extends LinkedHashMap<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+            if (size() > capacity) {
+                evictionCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
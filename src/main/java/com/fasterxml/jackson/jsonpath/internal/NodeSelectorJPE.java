@@ -0,0 +1,47 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+
+/**
+ * Selector selecting a single node out of each node of its object, so that a chain of them can be compiled into a
+ * {@link CompiledSelectorChainJPE}.
+ */
+abstract class NodeSelectorJPE extends SelectorJPE {
+
+    NodeSelectorJPE(int position, JsonPathExpression object) {
+        super(position, object.isVector(), object);
+    }
+
+    @Override
+    abstract NodeSelectorJPE withObject(JsonPathExpression newObject);
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context) {
+        return evalAsDotProduct(context, getObject());
+    }
+
+    @Override
+    JsonNode computeNode(JsonPathContext context, JsonNode[] childValues) {
+        return select(context, childValues[0]);
+    }
+
+    /**
+     * @return the node selected on a node of the object
+     */
+    abstract JsonNode select(JsonPathContext context, JsonNode o);
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.fasterxml.jackson.jsonpath.JsonPathParallelism;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+
+/**
+ * Evaluation of the elements of a large vector, split in chunks evaluated in the fork/join pool of the
+ * {@link JsonPathParallelism}.
+ * <p>
+ * Each chunk is evaluated in its own fork of the context. The results of the chunks are concatenated in the order of
+ * the vector, and the error of the first failing chunk is rethrown, so that the outcome is the one of a sequential
+ * evaluation.
+ */
+abstract class ParallelVectorEvaluation {
+
+    private final JsonPathContext context;
+
+    private final int size;
+
+    private final int chunkSize;
+
+    private final JsonPathVectorValue[] results;
+
+    private final RuntimeException[] errors;
+
+    ParallelVectorEvaluation(JsonPathContext context, int size) {
+        this.context = context;
+        this.size = size;
+        JsonPathParallelism parallelism = context.getParallelism();
+        int chunks = Math.min(size / parallelism.getThreshold(), parallelism.getPool().getParallelism() * 4);
+        chunks = Math.max(1, chunks);
+        this.chunkSize = (size + chunks - 1) / chunks;
+        chunks = (size + chunkSize - 1) / chunkSize;
+        this.results = new JsonPathVectorValue[chunks];
+        this.errors = new RuntimeException[chunks];
+    }
+
+    /**
+     * @return whether a vector of that size is to be evaluated in parallel in the context
+     */
+    static boolean isParallel(JsonPathContext context, int size) {
+        JsonPathParallelism parallelism = context.getParallelism();
+        return parallelism != null && size >= parallelism.getThreshold() && size > 1;
+    }
+
+    /**
+     * Evaluate the elements of the vector from start, inclusive, to end, exclusive
+     */
+    abstract JsonPathVectorValue evalChunk(JsonPathContext chunkContext, int start, int end);
+
+    JsonPathVectorValue run() {
+        ForkJoinPool pool = context.getParallelism().getPool();
+        ChunkTask task = new ChunkTask(0, results.length);
+        if (ForkJoinTask.getPool() == pool) {
+            // already in a chunk of an enclosing vector
+            task.invoke();
+        } else {
+            pool.invoke(task);
+        }
+        int n = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (errors[i] != null) {
+                throw errors[i];
+            }
+            n += results[i].size();
+        }
+        JsonPathVectorValue ret = new JsonPathVectorValue(n);
+        for (JsonPathVectorValue result : results) {
+            result.addTo(ret);
+        }
+        return ret;
+    }
+
+    private class ChunkTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+
+        private final int to;
+
+        ChunkTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new ChunkTask(from, middle), new ChunkTask(middle, to));
+                return;
+            }
+            int start = from * chunkSize;
+            int end = Math.min(size, start + chunkSize);
+            try {
+                results[from] = evalChunk(context.fork(), start, end);
+            } catch (RuntimeException e) {
+                errors[from] = e;
+            }
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath.internal;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.JsonPathValue;
+import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
+
+/**
+ * Expression selecting some content out of the value of another expression, the object.
+ */
+abstract class SelectorJPE extends JsonPathExpression {
+
+    private JsonPathExpression object;
+
+    SelectorJPE(int position, boolean vector, JsonPathExpression object) {
+        super(position, vector);
+        this.object = object;
+    }
+
+    JsonPathExpression getObject() {
+        return object;
+    }
+
+    /**
+     * @return a copy of this selector applying on another object
+     */
+    abstract SelectorJPE withObject(JsonPathExpression newObject);
+
+    @Override
+    JsonPathExpression withChildren(JsonPathExpression[] children) {
+        return withObject(children[0]);
+    }
+
+    @Override
+    public JsonPathValue eval(JsonPathContext context, int limit) {
+        if (!isVector()) {
+            return eval(context);
+        }
+        // the values of the object are pulled one at a time, so its evaluation stops with the selection
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        Values objects = values(getObject(), context);
+        while (ret.size() < limit && objects.next()) {
+            computeFirst(context, objects.node, limit - ret.size()).addTo(ret);
+        }
+        return ret;
+    }
+
+    /**
+     * @return the values of the expression, the ones of a vector selector being evaluated as they are pulled
+     */
+    static Values values(JsonPathExpression expr, JsonPathContext context) {
+        if (expr instanceof SelectorJPE && expr.isVector()) {
+            return ((SelectorJPE) expr).values(context);
+        }
+        return new VectorValues(expr.eval(context));
+    }
+
+    /**
+     * @return the values of this vector selector, each node of the object being selected on when the values already
+     *         selected are all pulled
+     */
+    Values values(final JsonPathContext context) {
+        final Values objects = values(getObject(), context);
+        return new Values() {
+
+            private JsonPathVectorValue selected = JsonPathVectorValue.EMPTY;
+
+            private int i;
+
+            @Override
+            boolean next() {
+                while (i >= selected.size()) {
+                    if (!objects.next()) {
+                        return false;
+                    }
+                    selected = new JsonPathVectorValue();
+                    computeFirst(context, objects.node, Integer.MAX_VALUE).addTo(selected);
+                    i = 0;
+                }
+                node = selected.get(i);
+                name = selected.getName(i);
+                i++;
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Selection of no more than <code>limit</code> values on a single node of the object. The selectors which may
+     * select more than one value on a node override it to stop once they have enough.
+     */
+    JsonPathValue computeFirst(JsonPathContext context, JsonNode node, int limit) {
+        return compute(context, new JsonNode[] { node });
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { object };
+    }
+
+    /**
+     * Cursor on the values of a vector, which may be computed as they are pulled
+     */
+    abstract static class Values {
+
+        JsonNode node;
+
+        String name;
+
+        /**
+         * @return whether there is a next value, then in {@link #node} and {@link #name}
+         */
+        abstract boolean next();
+    }
+
+    /**
+     * The values of an evaluated expression, a single value being seen as a vector of one node, even missing, as the
+     * selectors apply on it
+     */
+    static class VectorValues extends Values {
+
+        private final JsonPathVectorValue vector;
+
+        private JsonNode single;
+
+        private int i;
+
+        VectorValues(JsonPathValue value) {
+            if (value instanceof JsonPathVectorValue) {
+                vector = (JsonPathVectorValue) value;
+            } else {
+                vector = null;
+                single = value.asNode();
+            }
+        }
+
+        @Override
+        boolean next() {
+            if (vector == null) {
+                node = single;
+                single = null;
+                return node != null;
+            }
+            if (i >= vector.size()) {
+                return false;
+            }
+            node = vector.get(i);
+            name = vector.getName(i);
+            i++;
+            return true;
+        }
+    }
+}
@@ -16,6 +16,7 @@ package com.fasterxml.jackson.jsonpath.internal;
 
 import java.text.ParseException;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
 class TernaryJPE extends JsonPathExpression {
@@ -37,6 +38,20 @@ class TernaryJPE extends JsonPathExpression {
         }
     }
 
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { condition, onTrue, onFalse };
+    }
+
+    @Override
+    TernaryJPE withChildren(JsonPathExpression[] children) {
+        try {
+            return new TernaryJPE(position, children[0], children[1], children[2]);
+        } catch (ParseException e) {
+            throw new IllegalStateException("the dimension of the children has changed", e);
+        }
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         boolean c = condition.evalAsBoolean(context);
@@ -47,6 +62,14 @@ class TernaryJPE extends JsonPathExpression {
         }
     }
 
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        if (condition.evalAsBoolean(context)) {
+            return onTrue.evalNode(context);
+        }
+        return onFalse.evalNode(context);
+    }
+
     @Override
     public String toString() {
         return condition.toString() + " ? " + onTrue.toString() + " : " + onFalse.toString();
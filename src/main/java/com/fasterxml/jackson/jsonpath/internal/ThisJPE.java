@@ -14,6 +14,7 @@
  */
 package com.fasterxml.jackson.jsonpath.internal;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.jsonpath.JsonPathSingleValue;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 
@@ -28,6 +29,11 @@ class ThisJPE extends JsonPathExpression {
         return new JsonPathSingleValue(context.getThis());
     }
 
+    @Override
+    JsonNode evalNode(JsonPathContext context) {
+        return context.getThis();
+    }
+
     @Override
     public String toString() {
         return "@";
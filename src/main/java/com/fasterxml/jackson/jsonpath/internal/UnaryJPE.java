@@ -39,11 +39,33 @@ class UnaryJPE extends JsonPathExpression {
         this.expr = expr;
     }
 
+    UnaryOp getOp() {
+        return op;
+    }
+
+    @Override
+    JsonPathExpression[] getChildren() {
+        return new JsonPathExpression[] { expr };
+    }
+
+    @Override
+    UnaryJPE withChildren(JsonPathExpression[] children) {
+        return new UnaryJPE(position, op, children[0]);
+    }
+
     @Override
     public JsonPathValue eval(JsonPathContext context) {
         return evalAsDotProduct(context, expr);
     }
 
+    @Override
+    boolean evalAsBoolean(JsonPathContext context) {
+        if (op == UnaryOp.NOT && !isVector()) {
+            return !expr.evalAsBoolean(context);
+        }
+        return super.evalAsBoolean(context);
+    }
+
     @Override
     Object computeObject(JsonPathContext context, JsonNode[] childValues) {
         switch (op) {
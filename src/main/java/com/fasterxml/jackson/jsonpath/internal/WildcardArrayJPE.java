@@ -19,37 +19,45 @@ import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
-class WildcardArrayJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class WildcardArrayJPE extends SelectorJPE {
 
     WildcardArrayJPE(int position, JsonPathExpression object) {
-        super(position, true);
-        this.object = object;
+        super(position, true, object);
+    }
+
+    @Override
+    WildcardArrayJPE withObject(JsonPathExpression newObject) {
+        return new WildcardArrayJPE(position, newObject);
     }
 
     @Override
     public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+        return evalAsDotProduct(context, getObject());
     }
 
     @Override
     JsonPathValue compute(JsonPathContext context, JsonNode[] childValues) {
-        JsonNode node = childValues[0];
-        JsonPathVectorValue ret = new JsonPathVectorValue();
-        if (node.isArray()) {
-            for (int i = 0; i < node.size(); i++) {
-                ret.add(node.get(i), Integer.toString(i));
-            }
-        } else {
+        return computeFirst(context, childValues[0], Integer.MAX_VALUE);
+    }
+
+    @Override
+    JsonPathValue computeFirst(JsonPathContext context, JsonNode node, int limit) {
+        if (!node.isArray()) {
             throw new JsonPathRuntimeException("wildcard selector cannot apply to "
                     + node.getNodeType().toString().toLowerCase(), position);
         }
+        if (node.size() <= limit) {
+            return JsonPathVectorValue.elementsOf(node);
+        }
+        JsonPathVectorValue ret = new JsonPathVectorValue(limit);
+        for (int i = 0; i < limit; i++) {
+            ret.add(node.get(i), JsonNodeUtil.indexName(i));
+        }
         return ret;
     }
 
     @Override
     public String toString() {
-        return object.toString() + "[*]";
+        return getObject().toString() + "[*]";
     }
 }
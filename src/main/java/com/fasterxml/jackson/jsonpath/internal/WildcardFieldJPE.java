@@ -21,26 +21,32 @@ import com.fasterxml.jackson.jsonpath.JsonPathRuntimeException;
 import com.fasterxml.jackson.jsonpath.JsonPathValue;
 import com.fasterxml.jackson.jsonpath.JsonPathVectorValue;
 
-class WildcardFieldJPE extends JsonPathExpression {
-
-    private JsonPathExpression object;
+class WildcardFieldJPE extends SelectorJPE {
 
     WildcardFieldJPE(int position, JsonPathExpression object) {
-        super(position, true);
-        this.object = object;
+        super(position, true, object);
+    }
+
+    @Override
+    WildcardFieldJPE withObject(JsonPathExpression newObject) {
+        return new WildcardFieldJPE(position, newObject);
     }
 
     @Override
     public JsonPathValue eval(JsonPathContext context) {
-        return evalAsDotProduct(context, object);
+        return evalAsDotProduct(context, getObject());
     }
 
     @Override
     JsonPathValue compute(JsonPathContext context, JsonNode[] childValues) {
-        JsonNode node = childValues[0];
-        JsonPathVectorValue ret = new JsonPathVectorValue();
+        return computeFirst(context, childValues[0], Integer.MAX_VALUE);
+    }
+
+    @Override
+    JsonPathValue computeFirst(JsonPathContext context, JsonNode node, int limit) {
+        JsonPathVectorValue ret = new JsonPathVectorValue(Math.min(node.size(), limit));
         if (node.isObject()) {
-            for (Iterator<String> fields = node.fieldNames(); fields.hasNext();) {
+            for (Iterator<String> fields = node.fieldNames(); fields.hasNext() && ret.size() < limit;) {
                 String field = fields.next();
                 ret.add(node.get(field), field);
             }
@@ -53,6 +59,6 @@ class WildcardFieldJPE extends JsonPathExpression {
 
     @Override
     public String toString() {
-        return object.toString() + ".*";
+        return getObject().toString() + ".*";
     }
 }
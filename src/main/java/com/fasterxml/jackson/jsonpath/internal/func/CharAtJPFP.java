@@ -25,6 +25,11 @@ public class CharAtJPFP extends JsonPathFunctionParser {
     public JsonPathFunction parse(final int position, List<JsonPathExpression> arguments) throws ParseException {
         checkNumberOfArg(position, arguments, 2);
         return new JsonPathFunction() {
+            @Override
+            public boolean isContextDependent() {
+                return false;
+            }
+
             @Override
             protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
                 JsonNode text = args.get(0);
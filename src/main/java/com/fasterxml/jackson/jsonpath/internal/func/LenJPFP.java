@@ -22,6 +22,11 @@ public class LenJPFP extends JsonPathFunctionParser {
     public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
         checkNumberOfArg(position, arguments, 1);
         return new JsonPathFunction() {
+            @Override
+            public boolean isContextDependent() {
+                return false;
+            }
+
             @Override
             protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
                 JsonNode node = args.get(0);
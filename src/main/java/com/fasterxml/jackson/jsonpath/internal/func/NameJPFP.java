@@ -13,6 +13,16 @@ public class NameJPFP extends JsonPathFunctionParser {
 
     public static final NameJPFP instance = new NameJPFP();
 
+    /**
+     * The function returned for every call, so that the predicates on the name can be recognized
+     */
+    public static final JsonPathFunction FUNCTION = new JsonPathFunction() {
+        @Override
+        protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
+            return context.getElementName();
+        }
+    };
+
     @Override
     public String getName() {
         return "name";
@@ -21,12 +31,7 @@ public class NameJPFP extends JsonPathFunctionParser {
     @Override
     public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
         checkNumberOfArg(position, arguments, 0);
-        return new JsonPathFunction() {
-            @Override
-            protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
-                return context.getElementName();
-            }
-        };
+        return FUNCTION;
     }
 
 }
@@ -4,6 +4,8 @@ import java.text.ParseException;
 import java.util.List;
 
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.IntNode;
+import com.fasterxml.jackson.databind.node.NullNode;
 import com.fasterxml.jackson.jsonpath.JsonPathFunction;
 import com.fasterxml.jackson.jsonpath.JsonPathFunctionParser;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
@@ -13,6 +15,20 @@ public class PosJPFP extends JsonPathFunctionParser {
 
     public static final PosJPFP instance = new PosJPFP();
 
+    /**
+     * The function returned for every call, so that it can be recognized as only reading the position
+     */
+    public static final JsonPathFunction FUNCTION = new JsonPathFunction() {
+        @Override
+        protected JsonNode callAsNode(JsonPathContext context, List<JsonNode> args) {
+            int pos = context.getPosAsInt();
+            if (pos < 0) {
+                return NullNode.getInstance();
+            }
+            return IntNode.valueOf(pos);
+        }
+    };
+
     @Override
     public String getName() {
         return "pos";
@@ -21,12 +37,7 @@ public class PosJPFP extends JsonPathFunctionParser {
     @Override
     public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
         checkNumberOfArg(position, arguments, 0);
-        return new JsonPathFunction() {
-            @Override
-            protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
-                return context.getPos();
-            }
-        };
+        return FUNCTION;
     }
 
 }
@@ -10,6 +10,7 @@ import com.fasterxml.jackson.databind.node.JsonNodeType;
 import com.fasterxml.jackson.databind.node.MissingNode;
 import com.fasterxml.jackson.jsonpath.JsonPathFunction;
 import com.fasterxml.jackson.jsonpath.JsonPathFunctionParser;
+import com.fasterxml.jackson.jsonpath.JsonPathFunctionRegistry;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
 import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
 import com.fasterxml.jackson.jsonpath.internal.LiteralJPE;
@@ -25,7 +26,13 @@ public class RegexpMatchJPFP extends JsonPathFunctionParser {
     }
 
     @Override
-    public JsonPathFunction parse(final int position, List<JsonPathExpression> arguments) throws ParseException {
+    public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
+        return parse(position, arguments, JsonPathFunctionRegistry.DEFAULT);
+    }
+
+    @Override
+    public JsonPathFunction parse(final int position, List<JsonPathExpression> arguments,
+            final JsonPathFunctionRegistry functionRegistry) throws ParseException {
         checkNumberOfArg(position, arguments, 2);
         final Pattern pattern;
         if (arguments.get(0) instanceof LiteralJPE) {
@@ -39,6 +46,14 @@ public class RegexpMatchJPFP extends JsonPathFunctionParser {
             pattern = null;
         }
         return new JsonPathFunction() {
+            @Override
+            public boolean isContextDependent() {
+                return false;
+            }
+
+            // the last pattern compiled for this call, which is usually the one of the next element
+            private volatile CompiledRegexp last;
+
             @Override
             protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
                 if (args.get(1).isMissingNode()) {
@@ -56,7 +71,14 @@ public class RegexpMatchJPFP extends JsonPathFunctionParser {
                         throw new TypeMismatchException(position, JsonNodeType.STRING, args.get(0),
                                 "the first argument of ", getName());
                     }
-                    p = Pattern.compile(args.get(0).asText());
+                    String regexp = args.get(0).asText();
+                    CompiledRegexp l = last;
+                    if (l != null && l.regexp.equals(regexp)) {
+                        p = l.pattern;
+                    } else {
+                        p = functionRegistry.compilePattern(regexp);
+                        last = new CompiledRegexp(regexp, p);
+                    }
                 }
 
                 String text = args.get(1).asText();
@@ -65,4 +87,16 @@ public class RegexpMatchJPFP extends JsonPathFunctionParser {
             }
         };
     }
+
+    private static class CompiledRegexp {
+
+        private final String regexp;
+
+        private final Pattern pattern;
+
+        CompiledRegexp(String regexp, Pattern pattern) {
+            this.regexp = regexp;
+            this.pattern = pattern;
+        }
+    }
 }
@@ -24,6 +24,11 @@ public class StartsWithJPFP extends JsonPathFunctionParser {
     public JsonPathFunction parse(final int position, List<JsonPathExpression> arguments) throws ParseException {
         checkNumberOfArg(position, arguments, 2);
         return new JsonPathFunction() {
+            @Override
+            public boolean isContextDependent() {
+                return false;
+            }
+
             @Override
             protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
                 if (!args.get(0).isTextual()) {
@@ -26,6 +26,11 @@ public class SubstringJPFP extends JsonPathFunctionParser {
             throw new ParseException(getName() + " is expecting 2 or 3 arguments but got " + arguments.size(), position);
         }
         return new JsonPathFunction() {
+            @Override
+            public boolean isContextDependent() {
+                return false;
+            }
+
             @Override
             protected Object callAsObject(JsonPathContext context, List<JsonNode> args) {
                 if (!args.get(0).isTextual()) {
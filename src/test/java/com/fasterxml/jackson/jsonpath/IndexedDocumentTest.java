@@ -0,0 +1,86 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class IndexedDocumentTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String JSON = "{\"id\": 1, \"x\": {\"id\": 2, \"x\": [{\"id\": 3}, 4]}, "
+            + "\"c\": {\"id\": 5, \"x\": {\"name\": \"x\", \"0\": {\"id\": 6}}}, \"d\": {\"e\": {\"id\": 7}, \"id\": 8}}";
+
+    // @formatter:off
+    private static final String[] PATHS = {
+        "$..*", "$..*.id", "$.c..*.id", "$.d..*.id", "$.d..*['id']", "$.x..*", "$.c..*", "$.x.x[0]..*", "$.id..*",
+        "$..*[?(name() == 'x')]", "$..*[?('x' == name())]", "$..*[?(name() == '0')]", "$.c..*[?(name() == 'x')]",
+        "$..*[?(name() == 'id')]", "$..*[?(name() == 'none')]", "$.*..*", "$.*..*[?(name() == 'x')].id",
+    };
+    // @formatter:on
+
+    @Test
+    public void same_results_as_tree() throws Exception {
+        List<JsonNode> documents = JsonPathCompileModeTest.documents();
+        documents.add(mapper.readTree(JSON));
+        List<String> paths = new ArrayList<String>(Arrays.asList(JsonPathCompileModeTest.PATHS));
+        paths.addAll(Arrays.asList(PATHS));
+        for (String p : paths) {
+            for (CompileMode mode : CompileMode.values()) {
+                JsonPath path;
+                try {
+                    path = JsonPath.compile(p, mode);
+                } catch (ParseException e) {
+                    continue;
+                }
+                for (JsonNode document : documents) {
+                    assertEquals(p + " on " + document, JsonPathCompileModeTest.describe(path, document),
+                            JsonPathCompileModeTest.describe(path, new IndexedDocument(document)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nodes_in_pre_order() throws Exception {
+        JsonNode root = mapper.readTree("{\"a\": [1, {\"b\": 2}], \"c\": 3}");
+        IndexedDocument document = new IndexedDocument(root);
+        assertEquals(6, document.size());
+        assertEquals(root, document.getRoot());
+        // $, a, a[0], a[1], a[1].b, c
+        assertEquals(null, document.getName(0));
+        assertEquals(-1, document.getParent(0));
+        assertEquals("a", document.getName(1));
+        assertEquals("1", document.getName(3));
+        assertEquals(1, document.getParent(3));
+        assertEquals("b", document.getName(4));
+        assertEquals(3, document.getDepth(4));
+        assertEquals(5, document.getSubtreeEnd(1));
+        assertEquals("c", document.getName(5));
+        assertEquals(3, document.indexOfContainer(root.get("a").get(1)));
+        assertEquals(-1, document.indexOfContainer(root.get("c")));
+        assertEquals(-1, document.indexOfContainer(mapper.readTree("{}")));
+    }
+}
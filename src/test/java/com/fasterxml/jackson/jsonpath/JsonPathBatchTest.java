@@ -0,0 +1,155 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonPathBatchTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static List<JsonNode> documents(int n) throws IOException {
+        List<JsonNode> documents = new ArrayList<JsonNode>();
+        for (int i = 0; i < n; i++) {
+            documents.add(mapper.readTree("{\"id\": " + i + ", \"tags\": [\"t" + i + "\"]}"));
+        }
+        return documents;
+    }
+
+    private static class Inputs implements Iterator<InputStream> {
+
+        private final List<String> jsons;
+
+        private final AtomicInteger closed = new AtomicInteger();
+
+        private int next;
+
+        // the maximum of inputs taken but not closed yet
+        private int maxInFlight;
+
+        Inputs(List<String> jsons) {
+            this.jsons = jsons;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next < jsons.size();
+        }
+
+        @Override
+        public InputStream next() {
+            maxInFlight = Math.max(maxInFlight, next + 1 - closed.get());
+            return new ByteArrayInputStream(jsons.get(next++).getBytes()) {
+                @Override
+                public void close() throws IOException {
+                    closed.incrementAndGet();
+                    super.close();
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    @Test
+    public void results_in_order() throws Exception {
+        List<JsonPathValue> values = JsonPath.compile("$.tags[0]").evalAll(documents(1000), executor, 16);
+        assertEquals(1000, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals("\"t" + i + "\"", values.get(i).toString());
+        }
+    }
+
+    @Test
+    public void first_error_reported() throws Exception {
+        JsonPath path = JsonPath.compile("$.tags[0]");
+        List<JsonNode> documents = documents(100);
+        documents.set(40, mapper.readTree("[1]"));
+        documents.set(60, mapper.readTree("\"x\""));
+        String expected = null;
+        try {
+            path.eval(documents.get(40));
+            fail();
+        } catch (JsonPathRuntimeException e) {
+            expected = e.getMessage();
+        }
+        try {
+            path.evalAll(documents, executor);
+            fail();
+        } catch (JsonPathRuntimeException e) {
+            assertEquals(expected, e.getMessage());
+        }
+    }
+
+    @Test
+    public void bounded_window_on_input_streams() throws Exception {
+        List<String> jsons = new ArrayList<String>();
+        for (int i = 0; i < 200; i++) {
+            jsons.add("{\"id\": " + i + "}");
+        }
+        Inputs inputs = new Inputs(jsons);
+        List<JsonPathValue> values = JsonPath.compile("$.id").evalAll(inputs, executor, 8);
+        assertEquals(200, values.size());
+        assertEquals("199", values.get(199).toString());
+        assertEquals(200, inputs.closed.get());
+        assertTrue("in flight: " + inputs.maxInFlight, inputs.maxInFlight <= 8);
+    }
+
+    @Test
+    public void parse_error_reported() throws Exception {
+        List<String> jsons = new ArrayList<String>();
+        for (int i = 0; i < 50; i++) {
+            jsons.add(i == 20 ? "{\"id\": " : "{\"id\": " + i + "}");
+        }
+        Inputs inputs = new Inputs(jsons);
+        try {
+            JsonPath.compile("$.id").evalAll(inputs, executor, 4);
+            fail();
+        } catch (JsonParseException e) {
+            // expected
+        }
+        // no input left open
+        assertEquals(inputs.next, inputs.closed.get());
+    }
+}
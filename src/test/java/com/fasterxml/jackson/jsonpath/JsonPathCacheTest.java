@@ -0,0 +1,111 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+public class JsonPathCacheTest {
+
+    @Test
+    public void hits_and_misses() throws Exception {
+        JsonPathCache cache = new JsonPathCache(100);
+        JsonPath path = cache.get("$.a.b", JsonPathFunctionRegistry.DEFAULT);
+        assertSame(path, cache.get("$.a.b", JsonPathFunctionRegistry.DEFAULT));
+        assertNotSame(path, cache.get("$.a.c", JsonPathFunctionRegistry.DEFAULT));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(2, cache.getMissCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void keyed_by_registry_identity() throws Exception {
+        JsonPathCache cache = new JsonPathCache(100);
+        JsonPathFunctionRegistry registry = new JsonPathFunctionRegistry();
+        registry.registerDefaultFunctions();
+        JsonPath path = cache.get("$.a", JsonPathFunctionRegistry.DEFAULT);
+        assertNotSame(path, cache.get("$.a", registry));
+        assertSame(path, cache.get("$.a", JsonPathFunctionRegistry.DEFAULT));
+    }
+
+    @Test
+    public void least_recently_used_evicted() throws Exception {
+        JsonPathCache cache = new JsonPathCache(3);
+        JsonPath a = cache.get("$.a", JsonPathFunctionRegistry.DEFAULT);
+        cache.get("$.b", JsonPathFunctionRegistry.DEFAULT);
+        cache.get("$.c", JsonPathFunctionRegistry.DEFAULT);
+        cache.get("$.a", JsonPathFunctionRegistry.DEFAULT);
+        cache.get("$.d", JsonPathFunctionRegistry.DEFAULT);
+        assertEquals(3, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertSame(a, cache.get("$.a", JsonPathFunctionRegistry.DEFAULT));
+        cache.get("$.b", JsonPathFunctionRegistry.DEFAULT);
+        assertEquals(2, cache.getHitCount());
+        assertEquals(5, cache.getMissCount());
+    }
+
+    @Test
+    public void bounded() throws Exception {
+        JsonPathCache cache = new JsonPathCache(50);
+        for (int i = 0; i < 500; i++) {
+            cache.get("$.a" + i, JsonPathFunctionRegistry.DEFAULT);
+        }
+        assertEquals(50, cache.size());
+        assertEquals(450, cache.getEvictionCount());
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        JsonPathCache cache = new JsonPathCache(0);
+        assertNotSame(cache.get("$.a", JsonPathFunctionRegistry.DEFAULT),
+                cache.get("$.a", JsonPathFunctionRegistry.DEFAULT));
+        assertEquals(0, cache.size());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void static_helpers_use_the_cache() throws Exception {
+        JsonPathCache previous = JsonPath.getCache();
+        JsonPathCache cache = new JsonPathCache(10);
+        JsonPath.setCache(cache);
+        try {
+            JsonPath.eval("{\"a\": 1}", "$.a");
+            JsonPath.eval("{\"a\": 2}", "$.a");
+            assertEquals(1, cache.getMissCount());
+            assertEquals(1, cache.getHitCount());
+        } finally {
+            JsonPath.setCache(previous);
+        }
+    }
+
+    @Test
+    public void dynamic_regexp_patterns_cached_by_registry() throws Exception {
+        JsonPathFunctionRegistry registry = new JsonPathFunctionRegistry();
+        registry.registerDefaultFunctions();
+        registry.setPatternCacheSize(10);
+        String json = "{\"rules\": [\"a.*\", \"b.*\"], \"items\": [{\"p\": \"x.\", \"v\": \"xy\"},"
+                + " {\"p\": \"y+\", \"v\": \"yz\"}, {\"p\": \"x.\", \"v\": \"xz\"}],"
+                + " \"names\": [\"ab\", \"ba\", \"ac\"]}";
+        assertEquals("[\"xy\",\"xz\"]", JsonPath.compile("$.items[*][?(regexpMatch(@.p, @.v))].v", registry)
+                .eval(json).toString());
+        assertEquals("[\"ab\",\"ac\"]", JsonPath.compile("$.names[*][?(regexpMatch($.rules[0], @))]", registry)
+                .eval(json).toString());
+        assertEquals(3, registry.getPatternCache().size());
+        assertEquals(10, registry.getPatternCacheSize());
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonPathCompileModeTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // paths of ComplianceTest and JsonPathTest, plus some covering each operator
+    // @formatter:off
+    static final String[] PATHS = {
+        "$.a", "$['a']", "$['c d']", "$.*", "$['*']", "$[*]", "$[0]", "$[4]", "$[-1:]", "$[0][0].author",
+        "$.points[1]", "$.points[4].x", "$.points[*][?(@.id=='i4')].x", "$.points[*].x", "$.points[-1].id",
+        "$['points'][*][?(@.x*@.x+@.y*@.y > 50)].id", "$.points[*][?(@.z != null)].id",
+        "$.menu.items[*][?(@ != null && @.id && !@.label)].id", "$.menu.items[*][?(@ == null)]",
+        "$.menu.items[*][?(@!= null  && @.label != null && regexpMatch('.*SVG', @.label))].id",
+        "$..*[?(pos()==3)]", "$..*[?(typeof(@) == 'array')][0]", "$.*[-1:]", "$.*[*][?(pos()%2==0)]",
+        "$.*[?(@.color != null)].x", "$.*[?(name() == 'lin' || name() == 'cir')].color",
+        "$.text[*][?(len(@) > 5)]", "$.text[*][?(charAt(@, 0) == 'h')]", "$..*.a",
+        "$.a[*][?(@['$']==5)].a", "$.a[*][?(@['\\\\@']==3)].a",
+        "$.store", "$.store.*", "$.store.book[*]", "$.store.book[*].author", "$.store.book[1]",
+        "$.store.book[100].author", "$.store.book[:2].author", "$.store.book[-1:0:-1].title",
+        "$['store']['bicycle']['dash-notation']", "$['store'].book[*]['author']", "$.store.bicycle.color.x",
+        "$.store.book[?(@.category=='reference')].title", "$.store.book[?(@['isbn'])].isbn",
+        "$.store.book[(1 + 1)].title", "$.store.book[($.store.book[0].title == 'x' ? 0 : -1)].title",
+        "$.store.book[*][?(@['display-price'] > 10 && @['display-price'] < 20)].title",
+        "$.store.book[*][?(!(@['display-price'] >= 10) || len(@.title) > 15)].title",
+        "$.store.book[0]['display-price'] * 2 - 1 / 4 % 3", "-$.store.book[0]['display-price']",
+        "$.store.book[*]['display-price'] + 1", "$.store.book[*].title + '!'",
+        "(len($.store.book[1].title) << 2 | 1) ^ 3 & 7 >> 1", "~len($.store.book[1].title) >>> 1",
+        "$.store.book[0].title == $.store.book[1].title ? 'same' : 'different'", "+'a'", "(1 / 0)",
+    };
+    // @formatter:on
+
+    static String describe(JsonPath path, JsonNode json) {
+        return describe(path, json, null);
+    }
+
+    static String describe(JsonPath path, IndexedDocument document) {
+        return describe(path, null, document);
+    }
+
+    private static String describe(JsonPath path, JsonNode json, IndexedDocument document) {
+        try {
+            return JsonPathValues.describe(document == null ? path.eval(json) : path.eval(document));
+        } catch (RuntimeException e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    static List<JsonNode> documents() throws Exception {
+        List<JsonNode> documents = new ArrayList<JsonNode>();
+        for (JsonNode test : mapper.readTree(JsonPathCompileModeTest.class.getResource("jsonpath-test.json"))) {
+            documents.add(test.get("o"));
+        }
+        documents.add(mapper.readTree(JsonPathTest.DOCUMENT));
+        documents.add(mapper.readTree(JsonPathTest.ARRAY));
+        return documents;
+    }
+
+    @Test
+    public void same_results_as_interpreter() throws Exception {
+        List<JsonNode> documents = documents();
+        for (String p : PATHS) {
+            JsonPath interpreted;
+            try {
+                interpreted = JsonPath.compile(p);
+            } catch (ParseException e) {
+                continue;
+            }
+            JsonPath compiled = JsonPath.compile(p, CompileMode.COMPILED);
+            for (JsonNode document : documents) {
+                assertEquals(p + " on " + document, describe(interpreted, document), describe(compiled, document));
+            }
+        }
+    }
+
+    @Test
+    public void compiled_streaming() throws Exception {
+        JsonPath compiled = JsonPath.compile("$.store.book[*][?(@['display-price'] > 10)].title",
+                CompileMode.COMPILED);
+        assertEquals("[\"Sword of Honour\",\"The Lord of the Rings\"]", compiled.eval(JsonPathTest.DOCUMENT)
+                .toString());
+    }
+
+    @Test
+    public void cached_per_mode() throws Exception {
+        JsonPath compiled = JsonPath.compile("$.store.book[1]", CompileMode.COMPILED);
+        assertSame(CompileMode.COMPILED, compiled.getCompileMode());
+        assertSame(CompileMode.INTERPRETED, JsonPath.compile("$.store.book[1]").getCompileMode());
+        assertSame(compiled, JsonPath.compile("$.store.book[1]", CompileMode.COMPILED));
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+public class JsonPathFeedTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // @formatter:off
+    private static final String HEADER = "{ \"header\": { \"tenant\": \"acme\", \"id\": 42 }, \"items\": [";
+
+    private static final String BODY =
+            "{ \"id\": 1, \"price\": 8 }, { \"id\": 2, \"price\": 12 }, { \"id\": 3, \"price\": 22 }";
+
+    private static final String END = "], \"trailer\": { \"count\": 3 } }";
+    // @formatter:on
+
+    private static class Collector implements JsonPathListener {
+
+        private final BlockingQueue<String> values = new LinkedBlockingQueue<String>();
+
+        @Override
+        public void onValue(int index, JsonPathValue value) {
+            values.add(index + "=" + value);
+        }
+
+        String next() throws InterruptedException {
+            return values.poll(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void feed(JsonPathFeed feed, String json) throws Exception {
+        byte[] bytes = json.getBytes("UTF-8");
+        feed.feed(bytes, 0, bytes.length);
+    }
+
+    @Test
+    public void values_before_end_of_input() throws Exception {
+        JsonPathSet set = JsonPathSet.compile("$.items[*].id", "$.header.tenant", "$.trailer.count", "$.header.none");
+        Collector collector = new Collector();
+        JsonPathFeed feed = set.feed(collector, executor);
+        feed(feed, HEADER);
+        assertEquals("1=\"acme\"", collector.next());
+        feed(feed, BODY);
+        // the object of the header is read, so the missing field is known too
+        assertEquals("3=", collector.next());
+        feed(feed, END);
+        assertEquals("2=3", collector.next());
+        feed.endOfInput();
+        assertEquals("0=[1,2,3]", collector.next());
+        assertNull(collector.values.poll());
+
+        List<JsonPathValue> values = feed.get();
+        List<JsonPathValue> expected = set.eval(HEADER + BODY + END);
+        assertEquals(expected.toString(), values.toString());
+        assertTrue(feed.isDone());
+    }
+
+    @Test
+    public void same_values_as_eval() throws Exception {
+        String json = HEADER + BODY + END;
+        byte[] bytes = json.getBytes("UTF-8");
+        String[] paths = { "$.header", "$.items[*][?(@.price > 10)].id", "$.items[1].price", "len($.items)",
+                "$.header.*" };
+        for (String path : paths) {
+            JsonPath jsonPath = JsonPath.compile(path);
+            Collector collector = new Collector();
+            JsonPathFeed feed = jsonPath.feed(collector, executor);
+            for (int i = 0; i < bytes.length; i += 7) {
+                feed.feed(bytes, i, Math.min(7, bytes.length - i));
+            }
+            feed.endOfInput();
+            String expected = jsonPath.eval(json).toString();
+            assertEquals(path, "0=" + expected, collector.next());
+            assertEquals(path, expected, feed.get().get(0).toString());
+        }
+    }
+
+    @Test
+    public void value_replaced_by_duplicated_field() throws Exception {
+        Collector collector = new Collector();
+        JsonPathFeed feed = JsonPath.compile("$.dup.x").feed(collector, executor);
+        feed(feed, "{ \"dup\": { \"x\": 1 }, \"dup\": { \"x\": 2 } }");
+        feed.endOfInput();
+        assertEquals("0=1", collector.next());
+        assertEquals("0=2", collector.next());
+        assertEquals("2", feed.get().get(0).toString());
+    }
+
+    @Test(timeout = 10000)
+    public void executor_running_in_the_calling_thread() throws Exception {
+        Executor direct = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                command.run();
+            }
+        };
+        JsonPathFeed feed = JsonPath.compile("$.header.tenant").feed(null, direct);
+        try {
+            feed(feed, HEADER);
+            fail();
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertTrue(feed.isDone());
+    }
+
+    @Test(timeout = 10000)
+    public void started_by_the_first_chunk() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            JsonPathFeed feed = JsonPath.compile("$.header.tenant").feed(null, single);
+            // the thread is not taken before the document starts
+            assertEquals("free", single.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return "free";
+                }
+            }).get(5, TimeUnit.SECONDS));
+            feed(feed, HEADER + BODY + END);
+            feed.endOfInput();
+            assertEquals("\"acme\"", feed.get().get(0).toString());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void client_dropped_mid_body() throws Exception {
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            Collector collector = new Collector();
+            JsonPathFeed feed = JsonPathSet.compile("$.header.tenant", "$.trailer.count").feed(collector, single);
+            feed(feed, HEADER);
+            assertEquals("0=\"acme\"", collector.next());
+            feed.cancel();
+            assertTrue(feed.isDone());
+            try {
+                feed.get();
+                fail();
+            } catch (CancellationException e) {
+                // expected
+            }
+            // the chunks after the cancellation are ignored
+            feed(feed, BODY + END);
+            feed.endOfInput();
+            // the thread waiting for the next chunk is released
+            assertEquals("free", single.submit(new Callable<String>() {
+                @Override
+                public String call() {
+                    return "free";
+                }
+            }).get(5, TimeUnit.SECONDS));
+            assertNull(collector.values.poll());
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void buffered_bytes() throws Exception {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        Executor later = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                tasks.add(command);
+            }
+        };
+        JsonPathFeed feed = JsonPath.compile("$.header.tenant").feed(null, later);
+        feed(feed, HEADER);
+        feed(feed, BODY);
+        assertEquals(HEADER.length() + BODY.length(), feed.getBufferedBytes());
+        assertEquals(1, tasks.size());
+        feed.cancel();
+        assertEquals(0, feed.getBufferedBytes());
+        // a cancelled evaluation does not run
+        tasks.get(0).run();
+        assertTrue(feed.isDone());
+    }
+
+    @Test
+    public void malformed_input() throws Exception {
+        JsonPathFeed feed = JsonPath.compile("$.header.tenant").feed(null, executor);
+        feed(feed, "{ \"header\": ] ");
+        try {
+            feed.get();
+            fail();
+        } catch (JsonParseException e) {
+            // expected
+        }
+        // the chunks after the failure are ignored
+        feed(feed, HEADER);
+        feed.endOfInput();
+        assertTrue(feed.isDone());
+    }
+
+    @Test
+    public void truncated_input() throws Exception {
+        JsonPathFeed feed = JsonPath.compile("$.trailer").feed(null, executor);
+        feed(feed, HEADER);
+        feed.endOfInput();
+        try {
+            feed.get();
+            fail();
+        } catch (JsonParseException e) {
+            // expected
+        }
+    }
+}
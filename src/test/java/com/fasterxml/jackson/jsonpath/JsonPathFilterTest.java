@@ -0,0 +1,115 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
+
+public class JsonPathFilterTest {
+
+    private static String eval(String json, String path) throws Exception {
+        return JsonPath.compile(path).eval(json).toString() + " "
+                + JsonPath.compile(path, CompileMode.COMPILED).eval(json).toString();
+    }
+
+    @Test
+    public void pos_and_name_of_each_element() throws Exception {
+        assertEquals("[2,4] [2,4]", eval("[1, 2, 3, 4]", "$[*][?(pos() % 2 == 1)]"));
+        assertEquals("[1,3] [1,3]", eval("{\"a\": 1, \"b\": 2, \"c\": 3}", "$.*[?(name() != 'b')]"));
+        assertEquals("[] []", eval("[1, 2, 3]", "$[*][?(pos() > 20)]"));
+    }
+
+    @Test
+    public void filter_on_descendants() throws Exception {
+        String json = "{\"a\": [{\"x\": 1}, [2]], \"b\": {\"x\": 3, \"c\": {}}}";
+        assertEquals("[[{\"x\":1},[2]],[2],{}] [[{\"x\":1},[2]],[2],{}]",
+                eval(json, "$..*[?(pos() % 2 == 1 || name() == 'c')]"));
+        assertEquals("[[2]] [[2]]", eval(json, "$..*[?(name() == '1')]"));
+        assertEquals("[[2]] [[2]]", eval(json, "$.a[*]..*[?(pos() == 1)]"));
+        assertEquals("[1,3] [1,3]", eval("{\"a\": {\"x\": 1}, \"b\": {\"x\": 3}}", "$..*.x"));
+    }
+
+    @Test
+    public void pos_out_of_filter() throws Exception {
+        assertEquals("null null", eval("[1]", "pos()"));
+    }
+
+    @Test
+    public void nested_filters_keep_their_own_element() throws Exception {
+        String json = "{\"a\": [[1, 2], [3, 4], [5, 6]]}";
+        assertEquals("[[3,4]] [[3,4]]",
+                eval(json, "$.a[*][?(len(@[*][?(pos() == 1 && @ > 3)]) == 1 && pos() < 2)]"));
+        json = "{\"a\": [3, 4], \"b\": [3, 4], \"c\": [4, 3]}";
+        assertEquals("[[3,4]] [[3,4]]",
+                eval(json, "$.*[?(len(@[*][?(name() == '1' && @ == 4)]) == 1 && name() != 'a')]"));
+    }
+
+    @Test
+    public void subexpressions_on_root_evaluated_once_per_filter() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        JsonPathFunctionRegistry registry = new JsonPathFunctionRegistry();
+        registry.registerDefaultFunctions();
+        registry.register(new JsonPathFunctionParser() {
+            @Override
+            public String getName() {
+                return "count";
+            }
+
+            @Override
+            public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
+                return new JsonPathFunction() {
+                    @Override
+                    public boolean isContextDependent() {
+                        return false;
+                    }
+
+                    @Override
+                    protected JsonNode callAsNode(JsonPathContext context, List<JsonNode> args) {
+                        calls.incrementAndGet();
+                        return args.get(0);
+                    }
+                };
+            }
+        });
+        String json = "{\"max\": 3, \"a\": [1, 2, 3, 4, 5], \"b\": [[1, 5], [3, 6]]}";
+        for (CompileMode mode : CompileMode.values()) {
+            calls.set(0);
+            assertEquals("[1,2]", JsonPath.compile("$.a[*][?(@ < count($.max))]", registry, mode).eval(json)
+                    .toString());
+            assertEquals(mode.toString(), 1, calls.get());
+
+            calls.set(0);
+            assertEquals("[4,5]", JsonPath.compile("$.a[*][?(count(@) > $.max)]", registry, mode).eval(json)
+                    .toString());
+            assertEquals(mode.toString(), 5, calls.get());
+
+            // once per evaluation of the nested filter
+            calls.set(0);
+            assertEquals("[[1,5]]",
+                    JsonPath.compile("$.b[*][?(len(@[*][?(@ < count($.max))]) == 1 && @[0] < count($.max))]",
+                            registry, mode).eval(json).toString());
+            assertEquals(mode.toString(), 3, calls.get());
+        }
+    }
+}
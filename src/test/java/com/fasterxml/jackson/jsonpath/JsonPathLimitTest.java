@@ -0,0 +1,188 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
+
+public class JsonPathLimitTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // @formatter:off
+    private static final String[] PATHS = {
+        "$..*", "$..*.a", "$..*[?(@.a)]", "$.*[*]", "$.*.*", "$.a[*][?(@ > 2)]", "$.a[*][?(@ > 2)].b",
+        "$.a..*", "$..*[?(name() == 'a')]", "$.*..*[?(pos() % 2 == 0)]",
+    };
+    // @formatter:on
+
+    @Test
+    public void first_values_of_the_evaluation() throws Exception {
+        List<JsonNode> documents = JsonPathCompileModeTest.documents();
+        documents.add(mapper.readTree("{\"a\": [1, 2, 3, {\"b\": 4}, [5], {\"a\": 6}], \"b\": {\"c\": {\"a\": 7}}}"));
+        List<String> paths = new ArrayList<String>(Arrays.asList(JsonPathCompileModeTest.PATHS));
+        paths.addAll(Arrays.asList(PATHS));
+        for (String p : paths) {
+            JsonPath path;
+            try {
+                path = JsonPath.compile(p);
+            } catch (ParseException e) {
+                continue;
+            }
+            for (JsonNode document : documents) {
+                JsonPathValue value;
+                try {
+                    value = path.eval(document);
+                } catch (RuntimeException e) {
+                    // the limited evaluation may stop before the error
+                    continue;
+                }
+                for (int limit = 0; limit < 4; limit++) {
+                    assertEquals(p + " on " + document + " limited to " + limit,
+                            JsonPathValues.describe(value, limit),
+                            JsonPathValues.describe(path.limit(document, limit)));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void exists_and_first() throws Exception {
+        JsonNode json = mapper.readTree("{\"a\": [1, 5, 7], \"b\": [{\"c\": 2}, {\"c\": 3}]}");
+        assertTrue(JsonPath.compile("$.a[*][?(@ > 2)]").exists(json));
+        assertFalse(JsonPath.compile("$.a[*][?(@ > 7)]").exists(json));
+        assertFalse(JsonPath.compile("$.c").exists(json));
+        assertEquals("5", JsonPath.compile("$.a[*][?(@ > 2)]").first(json).toString());
+        assertEquals("2", JsonPath.compile("$.b[*].c").first(json).toString());
+        assertEquals("3", JsonPath.compile("$.b[*][?(@.c > 2)].c").first(json).toString());
+        assertTrue(JsonPath.compile("$.a[*][?(@ > 7)]").first(json).isMissingNode());
+        assertEquals("[1,5]", JsonPath.compile("$.a[*]").limit(json, 2).toString());
+    }
+
+    @Test
+    public void filter_stops_at_first_match() throws Exception {
+        final AtomicInteger calls = new AtomicInteger();
+        JsonPathFunctionRegistry registry = new JsonPathFunctionRegistry();
+        registry.registerDefaultFunctions();
+        registry.register(new JsonPathFunctionParser() {
+            @Override
+            public String getName() {
+                return "count";
+            }
+
+            @Override
+            public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
+                return new JsonPathFunction() {
+                    @Override
+                    protected JsonNode callAsNode(JsonPathContext context, List<JsonNode> args) {
+                        calls.incrementAndGet();
+                        return args.get(0);
+                    }
+                };
+            }
+        });
+        JsonNode json = mapper.readTree("{\"a\": [1, 2, 3, 4, 5, 6, 7, 8], \"b\": {\"c\": [1, 2], \"d\": [3, 4]}}");
+        for (CompileMode mode : CompileMode.values()) {
+            calls.set(0);
+            assertTrue(JsonPath.compile("$.a[*][?(count(@) > 2)]", registry, mode).exists(json));
+            assertEquals(mode.toString(), 3, calls.get());
+
+            calls.set(0);
+            assertEquals("[3,4]", JsonPath.compile("$.b.*[*][?(count(@) > 2)]", registry, mode).limit(json, 2)
+                    .toString());
+            assertEquals(mode.toString(), 4, calls.get());
+
+            calls.set(0);
+            assertEquals("[1,2,3,4,5,6,7,8]",
+                    JsonPath.compile("$..*[?(typeof(count(@)) == 'array')]", registry, mode).first(json).toString());
+            assertEquals(mode.toString(), 2, calls.get());
+        }
+    }
+
+    private static class ScannedMetrics implements JsonPathMetrics {
+
+        private long scanned;
+
+        @Override
+        public void compiled(String path, long nanos) {
+        }
+
+        @Override
+        public void evaluated(String path, long nanos, long documentSize, int cardinality, long scanned,
+                long functionCalls) {
+            this.scanned = scanned;
+        }
+    }
+
+    @Test
+    public void never_scans_more_than_the_evaluation() throws Exception {
+        ObjectNode items = mapper.createObjectNode();
+        ArrayNode array = items.putArray("items");
+        for (int i = 0; i < 1000; i++) {
+            array.addObject().put("name", "n" + i);
+        }
+        // the only match, near the end, has no name
+        array.insertObject(990).put("x", 1);
+        List<JsonNode> documents = JsonPathCompileModeTest.documents();
+        documents.add(items);
+        List<String> paths = new ArrayList<String>(Arrays.asList(PATHS));
+        paths.add("$.items[*][?(@.x)].name");
+        paths.add("$.items[*][?(@.x)]");
+        paths.add("$..*[?(@.x)].name");
+        ScannedMetrics metrics = new ScannedMetrics();
+        JsonPath.setMetrics(metrics);
+        try {
+            for (String p : paths) {
+                JsonPath path = JsonPath.compile(p);
+                for (JsonNode document : documents) {
+                    try {
+                        path.eval(document);
+                    } catch (RuntimeException e) {
+                        continue;
+                    }
+                    long scanned = metrics.scanned;
+                    for (int limit = 0; limit < 4; limit++) {
+                        path.limit(document, limit);
+                        assertTrue(p + " limited to " + limit, metrics.scanned <= scanned);
+                    }
+                }
+            }
+            JsonPath path = JsonPath.compile("$.items[*][?(@.x)].name");
+            assertFalse(path.exists(items));
+            assertEquals(1001, metrics.scanned);
+            path = JsonPath.compile("$.items[*][?(@.name)].name");
+            assertTrue(path.exists(items));
+            assertEquals(1, metrics.scanned);
+        } finally {
+            JsonPath.setMetrics(null);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jsonpath.JsonPathStatistics.PathStatistics;
+
+public class JsonPathMetricsTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private JsonPathCache cache;
+
+    private JsonPathStatistics statistics = new JsonPathStatistics();
+
+    @Before
+    public void measure() {
+        cache = JsonPath.getCache();
+        JsonPath.setCache(new JsonPathCache(0));
+        JsonPath.setMetrics(statistics);
+    }
+
+    @After
+    public void restore() {
+        JsonPath.setMetrics(null);
+        JsonPath.setCache(cache);
+    }
+
+    @Test
+    public void compile_and_eval_on_tree() throws Exception {
+        String path = "$.a[*][?(@ > 1)]";
+        JsonPath jsonPath = JsonPath.compile(path);
+        jsonPath.eval(mapper.readTree("{\"a\": [1, 2, 3]}"));
+        PathStatistics pathStatistics = statistics.getStatistics(path);
+        assertEquals(1, pathStatistics.getCompileNanos().getCount());
+        assertEquals(1, pathStatistics.getEvalNanos().getCount());
+        assertEquals(2, pathStatistics.getCardinality().getMax());
+        assertEquals(3, pathStatistics.getScanned().getMax());
+        assertEquals(0, pathStatistics.getFunctionCalls().getMax());
+        // the size of a json tree is not known
+        assertEquals(0, pathStatistics.getDocumentSize().getCount());
+    }
+
+    @Test
+    public void eval_on_raw_document() throws Exception {
+        String path = "$.t[*][?(len(@) > 1)]";
+        String json = "{\"t\": [\"a\", \"bb\", \"ccc\"]}";
+        JsonPath jsonPath = JsonPath.compile(path);
+        assertEquals("[\"bb\",\"ccc\"]", jsonPath.eval(json).toString());
+        assertEquals("[\"bb\",\"ccc\"]", jsonPath.withParallelism(null).eval(json).toString());
+        PathStatistics pathStatistics = statistics.getStatistics(path);
+        assertEquals(2, pathStatistics.getEvalNanos().getCount());
+        assertEquals(json.length(), pathStatistics.getDocumentSize().getMax());
+        assertEquals(2, pathStatistics.getCardinality().getMax());
+        assertEquals(3, pathStatistics.getFunctionCalls().getMax());
+
+        JsonPath.compile("$.t[0]").eval(json);
+        assertEquals(1, statistics.getStatistics("$.t[0]").getCardinality().getMax());
+        JsonPath.compile("$.none").eval(json);
+        assertEquals(0, statistics.getStatistics("$.none").getCardinality().getMax());
+    }
+
+    @Test
+    public void not_measured_without_metrics() throws Exception {
+        JsonPath.setMetrics(null);
+        JsonPath.compile("$.a").eval("{\"a\": 1}");
+        assertNull(statistics.getStatistics("$.a"));
+        assertTrue(statistics.getStatistics().isEmpty());
+    }
+
+    @Test
+    public void bounded_number_of_paths() throws Exception {
+        JsonPathStatistics bounded = new JsonPathStatistics(16);
+        JsonPath.setMetrics(bounded);
+        for (int i = 0; i < 100; i++) {
+            JsonPath.compile("$.a" + i).eval("{\"a1\": 1}");
+        }
+        assertEquals(16, bounded.getMaximumPaths());
+        assertEquals(16, bounded.getStatistics().size());
+        // the least recently measured paths are dropped
+        assertNull(bounded.getStatistics("$.a0"));
+        assertEquals(1, bounded.getStatistics("$.a99").getEvalNanos().getCount());
+    }
+
+    @Test
+    public void histogram_percentiles() {
+        JsonPathHistogram histogram = new JsonPathHistogram();
+        assertEquals(0, histogram.getPercentile(99));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i);
+        }
+        histogram.record(-1);
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMean(), 0);
+        assertEquals(100, histogram.getMax());
+        long median = histogram.getPercentile(50);
+        assertTrue(String.valueOf(median), median >= 50 && median < 100);
+        assertEquals(1, histogram.getPercentile(0));
+        assertEquals(100, histogram.getPercentile(100));
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeInfo.Id;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
+
+public class JsonPathObjectTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    public static class Order {
+
+        static int reads;
+
+        private final int id;
+
+        private final double total;
+
+        private final List<String> tags;
+
+        Order(int id, double total, String... tags) {
+            this.id = id;
+            this.total = total;
+            this.tags = Arrays.asList(tags);
+        }
+
+        public int getId() {
+            reads++;
+            return id;
+        }
+
+        @JsonProperty("amount")
+        public double getTotal() {
+            return total;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+
+        @JsonIgnore
+        public String getSecret() {
+            return "secret";
+        }
+    }
+
+    @JsonInclude(Include.NON_NULL)
+    public static class NonNull {
+
+        public String a;
+
+        public int b = 1;
+    }
+
+    public static class AnyGetter {
+
+        public int b = 1;
+
+        @JsonAnyGetter
+        public Map<String, Object> getOthers() {
+            return Collections.<String, Object> singletonMap("x", 5);
+        }
+    }
+
+    public static class Inner {
+
+        public int b = 1;
+    }
+
+    public static class Unwrapped {
+
+        @JsonUnwrapped
+        public Inner inner = new Inner();
+
+        public int x = 5;
+    }
+
+    public static class CustomSerializer {
+
+        @JsonSerialize(using = ToStringSerializer.class)
+        public int id = 5;
+
+        public int b = 1;
+    }
+
+    @JsonTypeInfo(use = Id.NAME)
+    public static class Typed {
+
+        public int b = 1;
+    }
+
+    private static Map<String, Object> payload() {
+        Map<String, Object> payload = new LinkedHashMap<String, Object>();
+        payload.put("orders", Arrays.asList(new Order(1, 50, "a"), new Order(2, 150, "b", "c"),
+                new Order(3, 300.5)));
+        payload.put("codes", new int[] { 4, 5 });
+        payload.put("name", "shop");
+        payload.put("none", null);
+        payload.put("nested", new Object[] { Arrays.asList(1L, true), new LinkedHashMap<String, Object>() });
+        return payload;
+    }
+
+    // @formatter:off
+    private static final String[] PATHS = {
+        "$.orders[*][?(@.amount > 100)].id", "$.orders[*].tags[*]", "$.orders[1]", "$.orders[*].secret", "$.codes[-1:]",
+        "$.*", "$..*", "$..*[?(name() == 'tags')]", "$.name + '!'", "$.none", "$.nested[0][1]", "$.nested[1]",
+        "$.orders[*][?(len(@.tags) == 2)].amount", "$.codes[*][?(@ == $.codes[0])]", "$.orders[0] == $.orders[0]",
+    };
+    // @formatter:on
+
+    @Test
+    public void same_results_as_tree() throws Exception {
+        Map<String, Object> payload = payload();
+        for (String p : PATHS) {
+            JsonPath path = JsonPath.compile(p);
+            assertEquals(p, path.eval(mapper.valueToTree(payload)).toString(), path.evalObject(payload).toString());
+        }
+        assertEquals("[150.0, [\"b\",\"c\"]]", JsonPathSet.compile("$.orders[1].amount", "$.orders[1].tags[*]")
+                .evalObject(payload).toString());
+    }
+
+    @Test
+    public void only_visited_objects_are_read() throws Exception {
+        Map<String, Object> payload = payload();
+        Order.reads = 0;
+        assertEquals("2", JsonPath.compile("$.orders[1].id").evalObject(payload).toString());
+        assertEquals(1, Order.reads);
+        Order.reads = 0;
+        assertEquals("[2,3]", JsonPath.compile("$.orders[*][?(@.amount > 100)].id").evalObject(payload).toString());
+        assertEquals(3, Order.reads);
+    }
+
+    @Test
+    public void views_written_without_conversion() throws Exception {
+        Map<String, Object> payload = payload();
+        JsonNode tree = mapper.valueToTree(payload);
+        JsonNode view = JsonPath.compile("$").evalObject(payload).asNode();
+        assertEquals(tree.toString(), view.toString());
+        assertEquals(mapper.writeValueAsString(tree), mapper.writeValueAsString(view));
+        assertTrue(view.equals(tree));
+        assertTrue(JsonPath.compile("$.orders").evalObject(payload).asNode().equals(tree.get("orders")));
+        assertFalse(view.equals(tree.get("orders")));
+        assertEquals(tree.findValues("id"), view.findValues("id"));
+        assertEquals(tree.findValuesAsText("tags"), view.findValuesAsText("tags"));
+        assertEquals(3, view.findParents("amount").size());
+    }
+
+    @Test
+    public void serializer_configuration_respected() throws Exception {
+        Object[] beans = { new NonNull(), new AnyGetter(), new Unwrapped(), new CustomSerializer(), new Typed() };
+        String[] paths = { "$", "$.a", "$.b", "$.x", "$.id", "$.inner", "$.*" };
+        for (Object bean : beans) {
+            JsonNode tree = mapper.valueToTree(bean);
+            for (String p : paths) {
+                JsonPath path = JsonPath.compile(p);
+                assertEquals(bean.getClass().getSimpleName() + " " + p, path.eval(tree).toString(),
+                        path.evalObject(bean).toString());
+            }
+        }
+        assertEquals("[\"5\"]", JsonPath.compile("$[*].id").evalObject(Arrays.asList(new CustomSerializer()))
+                .toString());
+    }
+}
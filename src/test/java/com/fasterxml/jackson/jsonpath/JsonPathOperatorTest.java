@@ -0,0 +1,77 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.Test;
+
+public class JsonPathOperatorTest {
+
+    private static final String JSON = "{\"i\": 3, \"l\": 10000000000, \"d\": 1.5, \"s\": \"x\", \"n\": null, "
+            + "\"a\": [0.5, 1.25, 2.5, 7]}";
+
+    private static String eval(String path) throws Exception {
+        String interpreted = JsonPath.compile(path).eval(JSON).toString();
+        assertEquals(path, interpreted, JsonPath.compile(path, CompileMode.COMPILED).eval(JSON).toString());
+        return interpreted;
+    }
+
+    private static String evalType(String path) throws Exception {
+        return JsonPath.compile(path).eval(JSON).asNode().getNodeType().toString().toLowerCase() + " "
+                + JsonPath.compile(path).eval(JSON).asNode().numberType();
+    }
+
+    private static void assertError(String path, String message) throws Exception {
+        try {
+            JsonPath.compile(path).eval(JSON);
+            fail(path);
+        } catch (JsonPathRuntimeException e) {
+            assertEquals(path, message, e.getMessage());
+        }
+    }
+
+    @Test
+    public void arithmetic_keeps_the_widest_number_type() throws Exception {
+        assertEquals("7", eval("$.i * 2 + 1"));
+        assertEquals("number INT", evalType("$.i * 2 + 1"));
+        assertEquals("10000000003", eval("$.l + $.i"));
+        assertEquals("number LONG", evalType("$.l + $.i"));
+        assertEquals("4.5", eval("$.d * $.i"));
+        assertEquals("number DOUBLE", evalType("$.i / 1.0"));
+        assertEquals("1", eval("$.i % 2"));
+        assertEquals("\"xy\"", eval("$.s + 'y'"));
+        assertEquals("[1.0,2.5,5.0,14]", eval("$.a[*] * 2"));
+    }
+
+    @Test
+    public void comparisons() throws Exception {
+        assertEquals("true", eval("$.d < 1.7"));
+        assertEquals("false", eval("$.d > 1.7"));
+        assertEquals("true", eval("$.l > $.i"));
+        assertEquals("true", eval("$.i >= 3.0"));
+        assertEquals("true", eval("!($.i < 3)"));
+        assertEquals("[0.5,1.25]", eval("$.a[*][?(@ < 1.5)]"));
+        assertEquals("[false,false,true,true]", eval("$.a[*] >= 2"));
+    }
+
+    @Test
+    public void errors() throws Exception {
+        assertError("$.s < 1", "Expecting a number but was a string in compare op '<'");
+        assertError("$.i * $.s", "Expecting a number but was a string in arithmetic op '*'");
+        assertError("$.n + 1", "null value");
+    }
+}
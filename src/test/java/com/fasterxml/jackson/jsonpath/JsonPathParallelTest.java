@@ -0,0 +1,127 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+public class JsonPathParallelTest {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(4);
+
+    // every vector of at least 2 elements is split
+    private static final JsonPathParallelism EVERYWHERE = new JsonPathParallelism(pool, 1);
+
+    @AfterClass
+    public static void shutdown() {
+        pool.shutdown();
+    }
+
+    private static ArrayNode records(int n) {
+        ArrayNode records = JsonNodeFactory.instance.arrayNode();
+        for (int i = 0; i < n; i++) {
+            ObjectNode record = records.addObject();
+            record.put("id", i);
+            record.put("score", (i * 37) % 100);
+            record.put("name", "record-" + i);
+        }
+        return records;
+    }
+
+    @Test
+    public void same_results_as_sequential() throws Exception {
+        List<JsonNode> documents = JsonPathCompileModeTest.documents();
+        for (String p : JsonPathCompileModeTest.PATHS) {
+            for (CompileMode mode : CompileMode.values()) {
+                JsonPath sequential;
+                try {
+                    sequential = JsonPath.compile(p, mode);
+                } catch (ParseException e) {
+                    continue;
+                }
+                JsonPath parallel = sequential.withParallelism(EVERYWHERE);
+                for (JsonNode document : documents) {
+                    assertEquals(p + " on " + document, JsonPathCompileModeTest.describe(sequential, document),
+                            JsonPathCompileModeTest.describe(parallel, document));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void large_filter() throws Exception {
+        ArrayNode records = records(50000);
+        JsonPath path = JsonPath.compile("$[*][?(@.score > 90 && regexpMatch('record-.*7', @.name))]");
+        JsonPathVectorValue sequential = (JsonPathVectorValue) path.eval(records);
+        JsonPathVectorValue parallel = (JsonPathVectorValue) path.withParallelism(new JsonPathParallelism(pool, 1000))
+                .eval(records);
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertSame(sequential.get(i), parallel.get(i));
+            assertEquals(sequential.getName(i), parallel.getName(i));
+        }
+    }
+
+    @Test
+    public void first_error_reported() throws Exception {
+        ArrayNode records = records(1000);
+        ((ObjectNode) records.get(200)).put("id", "x");
+        ((ObjectNode) records.get(800)).put("id", "y");
+        JsonPath path = JsonPath.compile("$[*][?(@.id > 5)].id").withParallelism(new JsonPathParallelism(pool, 10));
+        String sequential = null;
+        try {
+            path.withParallelism(null).eval(records);
+            fail();
+        } catch (JsonPathRuntimeException e) {
+            sequential = e.getMessage();
+        }
+        try {
+            path.eval(records);
+            fail();
+        } catch (JsonPathRuntimeException e) {
+            assertEquals(sequential, e.getMessage());
+        }
+    }
+
+    @Test
+    public void streaming_and_set() throws Exception {
+        String json = records(100).toString();
+        JsonPath path = JsonPath.compile("$[*][?(pos() % 10 == 3)].id").withParallelism(EVERYWHERE);
+        assertEquals("[3,13,23,33,43,53,63,73,83,93]", path.eval(json).toString());
+        assertEquals("[3,13,23,33,43,53,63,73,83,93]", new JsonPathSet(path).eval(json).get(0).toString());
+    }
+
+    @Test
+    public void sequential_by_default() throws Exception {
+        JsonPath path = JsonPath.compile("$[*]");
+        assertNull(path.getParallelism());
+        assertSame(EVERYWHERE, path.withParallelism(EVERYWHERE).getParallelism());
+        assertSame(null, path.withParallelism(EVERYWHERE).withParallelism(null).getParallelism());
+    }
+}
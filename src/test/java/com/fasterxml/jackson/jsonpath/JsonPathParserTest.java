@@ -0,0 +1,128 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.text.ParseException;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpressionParser;
+
+public class JsonPathParserTest {
+
+    private static String eval(String path) throws Exception {
+        return JsonPath.compile(path).eval("{\"a'b\": [1, 2]}").toString();
+    }
+
+    private static void assertError(String path, int offset, String message) {
+        try {
+            JsonPathExpressionParser.parse(path, JsonPathFunctionRegistry.DEFAULT);
+            fail(path);
+        } catch (ParseException e) {
+            assertEquals(path, message, e.getMessage());
+            assertEquals(path, offset, e.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void numbers() throws Exception {
+        assertEquals("42", eval("42"));
+        assertEquals("0", eval("0"));
+        assertEquals("31", eval("0x1F"));
+        assertEquals("5", eval("0b1_01"));
+        assertEquals("15", eval("017"));
+        assertEquals("3.14", eval("3.14"));
+        assertEquals("0.5", eval(".5f"));
+        assertEquals("0.0015", eval("1.5e-3"));
+        assertEquals("9223372036854775807", eval("0x7fff_ffff_ffff_ffffL"));
+        assertEquals("1000000", eval("1_000_000"));
+        assertEquals("1234.5678", eval("1_234.567_8"));
+        assertEquals("150000.0", eval("1.5e0_5"));
+        assertEquals("2", eval("$['a\\'b'][0_1]"));
+    }
+
+    @Test
+    public void strings_and_selectors() throws Exception {
+        assertEquals("2", eval("$['a\\'b'][1]"));
+        assertEquals("[2]", eval("$['a\\'b'][-1:]"));
+        assertEquals("\"ab\\\\c\"", eval("'a' + \"b\\\\c\""));
+    }
+
+    private static void assertOptimized(String expected, String path) throws ParseException {
+        assertEquals(path, expected, JsonPathExpressionParser.parse(path, JsonPathFunctionRegistry.DEFAULT).toString());
+    }
+
+    @Test
+    public void constants_are_folded() throws Exception {
+        assertOptimized("\"prefix\"", "'pre' + 'fix'");
+        assertOptimized("-23", "~5 << 2 | 1");
+        assertOptimized("$[(\"a\")][?(@[(\"x\")] > 600000)]", "$.a[?(@.x > 10*60*1000)]");
+        assertOptimized("$[(\"a\")][3]", "$.a[(1+2)]");
+        assertOptimized("$[(\"a\")][-1]", "$.a[(-1)]");
+        assertOptimized("$[(\"a\")][(\"b\")]", "$.a[('b')]");
+        assertOptimized("$[(\"a\")]", "1 == 1 ? $.a : $.b");
+        assertOptimized("$[(\"a\")] == 1", "!!($.a == 1)");
+        assertOptimized("$[(\"a\")][?(@[(\"flag\")])]", "$.a[?(!!@.flag)]");
+        assertOptimized("$[(\"a\")][?(@[(\"x\")])]", "$.a[?(@.x && 2 > 1)]");
+        assertOptimized("$[(\"a\")] > 1", "(1 == 0) || $.a > 1");
+        // not boolean, nor in a boolean context
+        assertOptimized("!!$[(\"a\")]", "!!$.a");
+        assertOptimized("1 && $[(\"a\")]", "1 && $.a");
+        // errors are kept for the evaluation
+        assertOptimized("1 / 0", "1/0");
+
+        assertEquals("2", eval("$['a\\'b'][(3 - 4)]"));
+        assertEquals("1", eval("!!(2 > 1) ? $['a\\'b'][(0 * 5)] : 0"));
+    }
+
+    @Test
+    public void descendants_printed_as_parsed() throws Exception {
+        String[] paths = { "$..*", "$.a..*.b", "$..*[('b')]", "$..*[?(@.x > 1)]", "$.a..*[?(name() == 'b')].c" };
+        for (String path : paths) {
+            String printed = JsonPathExpressionParser.parse(path, JsonPathFunctionRegistry.DEFAULT).toString();
+            assertEquals(path, printed,
+                    JsonPathExpressionParser.parse(printed, JsonPathFunctionRegistry.DEFAULT).toString());
+        }
+        assertOptimized("$..*", "$..*");
+        assertOptimized("$[(\"a\")]..*[(\"b\")]", "$.a..*.b");
+        assertOptimized("$..*[?(@[(\"x\")] > 1)]", "$..*[?(@.x > 1)]");
+    }
+
+    @Test
+    public void error_offsets() {
+        assertError("$.a[", 3, "expecting an identifier");
+        assertError("$.", 1, "expecting an identifier");
+        assertError("$.store.book[?(@.x > 1]", 22, "Expecting ')' but found ']' in filter");
+        assertError("$.a[1:2", 6, "Unexpected end of input in array selector");
+        assertError("$['a", 3, "Unexpected end of input in string");
+        assertError("len(", 3, "Unexpected end of input in end of function call");
+        assertError("len(@", 4, "Unexpected end of input in end of function call");
+        assertError("foo(1)", 5, "unknown function 'foo'");
+        assertError("$.a.b c", 6, "Expected character at end of expression");
+        assertError("1 ? 2", 4, "Unexpected end of input in ternary expression");
+        assertError("99999999999999999999", -1, "number too large");
+        assertError("1_", 1, "misplaced '_' in number");
+        assertError("1__0", 1, "misplaced '_' in number");
+        assertError("1_.5", 1, "misplaced '_' in number");
+        assertError("1.5_", 3, "misplaced '_' in number");
+        assertError("1.5e1_", 5, "misplaced '_' in number");
+        assertError("0x1F_", 4, "misplaced '_' in number");
+        assertError("$.a[-_1]", 5, "misplaced '_' in number");
+        assertError("$.a[1_]", 5, "misplaced '_' in number");
+    }
+}
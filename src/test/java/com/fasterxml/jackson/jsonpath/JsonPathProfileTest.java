@@ -0,0 +1,84 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonPathProfileTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void operators_of_a_filter() throws Exception {
+        JsonPathProfile profile = JsonPath.compile("$.a[*][?(@ > 1)]").profile(mapper.readTree("{\"a\": [1, 2, 3]}"));
+        assertEquals("Filter", profile.getType());
+        assertEquals(1, profile.getInvocations());
+        assertEquals(2, profile.getOutputCardinality());
+        assertEquals(2, profile.getChildren().size());
+
+        JsonPathProfile elements = profile.getChildren().get(0);
+        assertEquals("WildcardArray", elements.getType());
+        assertEquals(1, elements.getInvocations());
+        assertEquals(3, elements.getOutputCardinality());
+
+        JsonPathProfile predicate = profile.getChildren().get(1);
+        assertEquals("Compare", predicate.getType());
+        assertEquals("@ > 1", predicate.getOperator());
+        assertEquals(10, predicate.getPosition());
+        assertEquals(3, predicate.getInvocations());
+        assertEquals(6, predicate.getInputCardinality());
+
+        assertTrue(profile.getNanos() >= elements.getNanos() + predicate.getNanos());
+        assertEquals(profile.getNanos() - elements.getNanos() - predicate.getNanos(), profile.getSelfNanos());
+    }
+
+    @Test
+    public void invariants_and_function_calls() throws Exception {
+        JsonNode json = mapper.readTree("{\"t\": [\"a\", \"bb\", \"ccc\"], \"min\": 1}");
+        JsonPathProfile profile = JsonPath.compile("$.t[*][?(len(@) > $.min)]").profile(json);
+        JsonPathProfile predicate = profile.getChildren().get(1);
+        JsonPathProfile call = predicate.getChildren().get(0);
+        assertEquals("FunctionCall", call.getType());
+        assertEquals("len(@)", call.getOperator());
+        assertEquals(3, call.getInvocations());
+        // the bound does not depend on the element, so it is evaluated once
+        JsonPathProfile invariant = predicate.getChildren().get(1);
+        assertEquals("Invariant", invariant.getType());
+        assertEquals(3, invariant.getInvocations());
+        assertEquals(1, invariant.getChildren().get(0).getInvocations());
+    }
+
+    @Test
+    public void rendering() throws Exception {
+        JsonPathProfile profile = JsonPath.compile("$.a[*][?(@ > 1)]").profile(mapper.readTree("{\"a\": [1, 2, 3]}"));
+        String[] lines = profile.toString().split("\n");
+        assertTrue(lines[0], lines[0].startsWith("Filter " + profile.getOperator() + " (at 6): calls=1 in=6 out=2 "));
+        assertTrue(lines[1], lines[1].startsWith("  WildcardArray "));
+
+        JsonNode json = profile.toJson();
+        assertEquals("Filter", json.get("type").asText());
+        assertEquals(6, json.get("position").asInt());
+        assertEquals(2, json.get("outputCardinality").asLong());
+        assertEquals(6, json.get("inputCardinality").asLong());
+        assertEquals(profile.getNanos(), json.get("nanos").asLong());
+        assertEquals("@ > 1", json.get("children").get(1).get("operator").asText());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParseException;
+
+public class JsonPathSequenceTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static String lines(int n) {
+        StringBuilder buffer = new StringBuilder();
+        for (int i = 0; i < n; i++) {
+            buffer.append("{\"id\": ").append(i).append(", \"tags\": [\"t").append(i).append("\"]}\n");
+        }
+        return buffer.toString();
+    }
+
+    private static List<String> toStrings(Iterator<JsonPathValue> values) {
+        List<String> strings = new ArrayList<String>();
+        while (values.hasNext()) {
+            strings.add(values.next().toString());
+        }
+        return strings;
+    }
+
+    private static List<String> toStrings(List<JsonPathValue> values) {
+        return toStrings(values.iterator());
+    }
+
+    @Test
+    public void one_value_per_line() throws Exception {
+        for (String path : new String[] { "$.id", "$.tags[0]", "$..*[?(name() == 'tags')][0]" }) {
+            Iterator<JsonPathValue> values = JsonPath.compile(path).evalSequence(
+                    new ByteArrayInputStream(lines(3).getBytes("UTF-8")));
+            List<String> expected = new ArrayList<String>();
+            for (String line : lines(3).split("\n")) {
+                expected.add(JsonPath.compile(path).eval(line).toString());
+            }
+            assertEquals(path, expected, toStrings(values));
+        }
+        Iterator<JsonPathValue> values = JsonPath.compile("$.a").evalSequence(
+                new ByteArrayInputStream("{\"a\": 1} {\"a\":\n 2}\n\n{\"b\": 3}".getBytes("UTF-8")));
+        assertEquals("[1, 2, ]", toStrings(values).toString());
+        assertFalse(values.hasNext());
+    }
+
+    @Test
+    public void closed_once_read() throws Exception {
+        final boolean[] closed = new boolean[1];
+        InputStream in = new ByteArrayInputStream(lines(2).getBytes("UTF-8")) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+            }
+        };
+        Iterator<JsonPathValue> values = JsonPath.compile("$.id").evalSequence(in);
+        values.next();
+        values.next();
+        assertFalse(closed[0]);
+        assertFalse(values.hasNext());
+        assertTrue(closed[0]);
+    }
+
+    @Test
+    public void parse_error() throws Exception {
+        Iterator<JsonPathValue> values = JsonPath.compile("$.id").evalSequence(
+                new ByteArrayInputStream("{\"id\": 1}\n{\"id\": }".getBytes("UTF-8")));
+        assertEquals("1", values.next().toString());
+        try {
+            values.next();
+            fail();
+        } catch (IllegalStateException e) {
+            assertTrue(e.getCause() instanceof JsonParseException);
+        }
+        assertFalse(values.hasNext());
+    }
+
+    @Test
+    public void file_split_in_parts() throws Exception {
+        File file = File.createTempFile("jsonpath", ".ndjson");
+        try {
+            FileOutputStream out = new FileOutputStream(file);
+            try {
+                out.write(lines(50).getBytes("UTF-8"));
+            } finally {
+                out.close();
+            }
+            JsonPath path = JsonPath.compile("$.tags[0]");
+            InputStream in = new ByteArrayInputStream(lines(50).getBytes("UTF-8"));
+            List<String> expected = toStrings(path.evalSequence(in));
+            for (int parts : new int[] { 1, 2, 3, 7, 50, 200 }) {
+                assertEquals("in " + parts + " parts", expected, toStrings(path.evalSequence(file, executor, parts)));
+            }
+        } finally {
+            file.delete();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class JsonPathSetTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // @formatter:off
+    private static final String JSON =
+            "{ \"header\": { \"id\": 42, \"tags\": [\"a\", \"b\"] },\n" +
+            "  \"payload\": { \"items\": [\n" +
+            "    { \"id\": 1, \"name\": \"one\", \"price\": 8 },\n" +
+            "    { \"id\": 2, \"name\": \"two\", \"price\": 12, \"tags\": [\"x\"] },\n" +
+            "    { \"id\": 3, \"price\": 22.5 }\n" +
+            "  ] }\n" +
+            "}";
+    // @formatter:on
+
+    private static void assertSameAsSeparate(String json, String... paths) throws Exception {
+        List<String> expected = new ArrayList<String>();
+        JsonNode tree = mapper.readTree(json);
+        try {
+            for (String path : paths) {
+                expected.add(JsonPathValues.describe(JsonPath.compile(path).eval(tree)));
+            }
+        } catch (JsonPathRuntimeException e) {
+            expected = describe(e);
+        }
+        JsonPathSet set = JsonPathSet.compile(paths);
+        List<String> actual = new ArrayList<String>();
+        try {
+            for (JsonPathValue value : set.eval(tree)) {
+                actual.add(JsonPathValues.describe(value));
+            }
+        } catch (JsonPathRuntimeException e) {
+            actual = describe(e);
+        }
+        assertEquals("tree", expected, actual);
+        actual = new ArrayList<String>();
+        JsonParser parser = mapper.getFactory().createParser(json);
+        try {
+            for (JsonPathValue value : set.evalStreaming(parser)) {
+                actual.add(JsonPathValues.describe(value));
+            }
+        } catch (JsonPathRuntimeException e) {
+            actual = describe(e);
+        }
+        assertEquals("streaming", expected, actual);
+    }
+
+    private static List<String> describe(JsonPathRuntimeException e) {
+        List<String> error = new ArrayList<String>();
+        error.add(e.getMessage() + " at " + e.getPosition());
+        return error;
+    }
+
+    @Test
+    public void shared_prefixes() throws Exception {
+        assertSameAsSeparate(JSON, "$.payload.items[*].id", "$.payload.items[*].name", "$.payload.items[*].price",
+                "$.header.id");
+        assertSameAsSeparate(JSON, "$.payload.items[*]", "$.payload.items[*].tags[0]", "$.payload.items[1].name");
+        assertSameAsSeparate(JSON, "$.header.*", "$.header.tags[*]", "$.header.tags[1]", "$.header");
+        assertSameAsSeparate(JSON, "$.header.id", "$.header.id", "$['header']['id']");
+    }
+
+    @Test
+    public void rest_of_paths() throws Exception {
+        assertSameAsSeparate(JSON, "$.payload.items[*][?(@.price > 10)].name",
+                "$.payload.items[*][?(@.price < 10)].id", "$.payload.items[-1]", "$.header..*");
+        assertSameAsSeparate(JSON, "$.payload.items[*][?(@.price > $.header.id / 4)].id", "$.payload.items[*].id");
+        assertSameAsSeparate(JSON, "$", "$.header.id + 1", "$.payload.items[($.header.tags[0] == 'a' ? 1 : 0)]");
+    }
+
+    @Test
+    public void first_failing_path_reported() throws Exception {
+        assertSameAsSeparate(JSON, "$.header.id", "$.header.tags.foo", "$.payload[0]");
+        assertSameAsSeparate(JSON, "$.payload.items[*].tags[0]", "$.header.tags[5]", "$.payload.items.id");
+        assertSameAsSeparate(JSON, "$.payload.items[*][?(@.nope.x)]", "$.payload.items[3]");
+    }
+
+    @Test
+    public void empty_set() throws Exception {
+        assertEquals(0, JsonPathSet.compile().eval(JSON).size());
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+public class JsonPathSmileTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final ObjectMapper smileMapper = new ObjectMapper(new SmileFactory());
+
+    // @formatter:off
+    private static final String JSON =
+            "{ \"header\": { \"id\": 42, \"tags\": [\"a\", \"b\"], \"empty\": null },\n" +
+            "  \"items\": [\n" +
+            "    { \"name\": \"one\", \"price\": 8, \"sub\": { \"x\": 1 } },\n" +
+            "    { \"name\": \"two\", \"price\": 12.5, \"sub\": [1, 2, 3] },\n" +
+            "    { \"name\": \"four\", \"price\": 22 }\n" +
+            "  ]\n" +
+            "}";
+    // @formatter:on
+
+    private static final String[] PATHS = { "$.header.id", "$.header.tags[1]", "$.header.empty", "$.items[*].name",
+            "$.items[*][?(@.price > 10)].name", "$.header.tags[*]", "$.items[0].sub.x", "$.items[1].sub[2]",
+            "$.items[*].sub", "$.missing" };
+
+    private static byte[] smile() throws Exception {
+        return smileMapper.writeValueAsBytes(mapper.readTree(JSON));
+    }
+
+    @Test
+    public void same_values_as_json() throws Exception {
+        byte[] smile = smile();
+        for (String path : PATHS) {
+            JsonPath jsonPath = JsonPath.compile(path);
+            String expected = jsonPath.eval(JSON).toString();
+            assertEquals(path, expected, jsonPath.eval(new ByteArrayInputStream(smile), new SmileFactory()).toString());
+            assertEquals(path, expected, jsonPath.eval(smileMapper.readTree(smile)).toString());
+            JsonParser parser = new SmileFactory().createParser(smile);
+            try {
+                assertEquals(path, expected, jsonPath.evalStreaming(parser).toString());
+            } finally {
+                parser.close();
+            }
+        }
+    }
+
+    @Test
+    public void path_set_on_smile_file() throws Exception {
+        File file = File.createTempFile("jsonpath", ".sml");
+        file.deleteOnExit();
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(smile());
+        } finally {
+            out.close();
+        }
+        JsonPathSet set = JsonPathSet.compile(PATHS);
+        List<JsonPathValue> expected = set.eval(JSON);
+        List<JsonPathValue> values = set.eval(file, new SmileFactory());
+        assertEquals(expected.size(), values.size());
+        for (int i = 0; i < PATHS.length; i++) {
+            assertEquals(PATHS[i], expected.get(i).toString(), values.get(i).toString());
+        }
+        JsonNode node = JsonPath.compile("$.items[0].price").eval(file, new SmileFactory()).asNode();
+        assertEquals(8, node.intValue());
+    }
+}
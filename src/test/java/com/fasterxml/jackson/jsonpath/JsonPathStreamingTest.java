@@ -0,0 +1,199 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathContext;
+import com.fasterxml.jackson.jsonpath.internal.JsonPathExpression;
+
+public class JsonPathStreamingTest {
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    // @formatter:off
+    private static final String JSON =
+            "{ \"header\": { \"id\": 42, \"tags\": [\"a\", \"b\"], \"empty\": null },\n" +
+            "  \"items\": [\n" +
+            "    { \"name\": \"one\", \"price\": 8, \"sub\": { \"x\": 1 } },\n" +
+            "    { \"name\": \"two\", \"price\": 12, \"sub\": [1, 2, 3] },\n" +
+            "    3,\n" +
+            "    { \"name\": \"four\", \"price\": 22.5 }\n" +
+            "  ],\n" +
+            "  \"matrix\": [[1, 2], [3, 4], []]\n" +
+            "}";
+    // @formatter:on
+
+    private static void assertSameAsTree(String json, String path) throws Exception {
+        JsonPath jsonPath = JsonPath.compile(path);
+        String expected;
+        try {
+            expected = JsonPathValues.describe(jsonPath.eval(mapper.readTree(json)));
+        } catch (JsonPathRuntimeException e) {
+            expected = e.getMessage() + " at " + e.getPosition();
+        }
+        String actual;
+        JsonParser parser = mapper.getFactory().createParser(json);
+        try {
+            actual = JsonPathValues.describe(jsonPath.evalStreaming(parser));
+        } catch (JsonPathRuntimeException e) {
+            actual = e.getMessage() + " at " + e.getPosition();
+        }
+        assertEquals(path, expected, actual);
+    }
+
+    @Test
+    public void eval_to_generator() throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = mapper.getFactory().createGenerator(writer);
+        JsonPath path = JsonPath.compile("$.header.tags[*]");
+        path.evalTo(mapper.getFactory().createParser(JSON), generator);
+        path.evalTo(mapper.readTree(JSON), generator);
+        generator.close();
+        assertEquals("[\"a\",\"b\"] [\"a\",\"b\"]", writer.toString());
+    }
+
+    @Test
+    public void fields_and_indexes() throws Exception {
+        assertSameAsTree(JSON, "$.header.id");
+        assertSameAsTree(JSON, "$.header");
+        assertSameAsTree(JSON, "$['header']['tags'][1]");
+        assertSameAsTree(JSON, "$.header.tags[(0)]");
+        assertSameAsTree(JSON, "$.header.empty");
+        assertSameAsTree(JSON, "$.items[3].price");
+        assertSameAsTree(JSON, "$.nope");
+        assertSameAsTree(JSON, "$.header.nope");
+    }
+
+    @Test
+    public void wildcards() throws Exception {
+        assertSameAsTree(JSON, "$.*");
+        assertSameAsTree(JSON, "$.header.*");
+        assertSameAsTree(JSON, "$.matrix[*]");
+        assertSameAsTree(JSON, "$.matrix[*][*]");
+        assertSameAsTree(JSON, "$.matrix[*][0]");
+        assertSameAsTree(JSON, "$.items[*].name");
+        assertSameAsTree(JSON, "$.items[*].nope");
+    }
+
+    @Test
+    public void duplicated_fields() throws Exception {
+        // the tree keeps the last value of a duplicated field, at the position of the first one
+        String json = "{ \"dup\": { \"x\": 1 }, \"other\": { \"x\": 3 }, \"dup\": { \"x\": 2, \"x\": 4 },"
+                + " \"list\": [ { \"k\": 1, \"k\": 2 }, { \"k\": 3 } ] }";
+        assertSameAsTree(json, "$.dup");
+        assertSameAsTree(json, "$.dup.x");
+        assertSameAsTree(json, "$.*");
+        assertSameAsTree(json, "$.*.x");
+        assertSameAsTree(json, "$.list[*].k");
+        assertSameAsTree(json, "$.list[*].*");
+        assertSameAsTree(json, "$.*[?(@.x > 1)].x");
+        assertSameAsTree(json, "$.dup.y");
+        assertSameAsTree(json, "$.list[0]..*");
+        JsonPathSet set = JsonPathSet.compile("$.dup.x", "$.list[*].k", "$.dup");
+        assertEquals(set.eval(mapper.readTree(json)).toString(), set.eval(json).toString());
+    }
+
+    @Test
+    public void remaining_path_evaluated_on_matches() throws Exception {
+        assertSameAsTree(JSON, "$.items[*][?(@.price > 10)].name");
+        assertSameAsTree(JSON, "$.items[*][?(pos() == 1)]");
+        assertSameAsTree(JSON, "$.header.*[?(name() == 'id')]");
+        assertSameAsTree(JSON, "$.items[0]..*");
+        assertSameAsTree(JSON, "$.header.tags[-1]");
+        assertSameAsTree(JSON, "$.items[1:2]");
+    }
+
+    @Test
+    public void non_streamable_paths() throws Exception {
+        assertSameAsTree(JSON, "$");
+        assertSameAsTree(JSON, "$..*");
+        assertSameAsTree(JSON, "$.items[*][?(@.price > $.header.id)]");
+        assertSameAsTree(JSON, "$.items[($.header.tags[0] == 'a' ? 1 : 0)]");
+        assertSameAsTree(JSON, "$.matrix[(@.header.id - 41)]");
+        assertSameAsTree(JSON, "$.header.id + 1");
+    }
+
+    @Test
+    public void function_reading_the_root() throws Exception {
+        JsonPathFunctionRegistry registry = new JsonPathFunctionRegistry();
+        registry.registerDefaultFunctions();
+        registry.register(new JsonPathFunctionParser() {
+            @Override
+            public String getName() {
+                return "maxPrice";
+            }
+
+            @Override
+            public JsonPathFunction parse(int position, List<JsonPathExpression> arguments) throws ParseException {
+                return new JsonPathFunction() {
+                    @Override
+                    protected JsonNode callAsNode(JsonPathContext context, List<JsonNode> args) {
+                        return context.getRoot().path("limits").path("maxPrice");
+                    }
+                };
+            }
+        });
+        String json = "{ \"limits\": { \"maxPrice\": 10 }, \"items\": [ { \"price\": 8 }, { \"price\": 12 } ] }";
+        JsonPath jsonPath = JsonPath.compile("$.items[*][?(@.price < maxPrice())].price", registry);
+        assertEquals("[8]", jsonPath.eval(mapper.readTree(json)).toString());
+        assertEquals("[8]", jsonPath.eval(json).toString());
+        assertEquals("[8]", new JsonPathSet(jsonPath).eval(json).get(0).toString());
+        // the built-in functions on the element are still streamed
+        assertSameAsTree(json, "$.items[*][?(pos() == 1 && len(name()) == 1)].price");
+    }
+
+    @Test
+    public void errors() throws Exception {
+        assertSameAsTree(JSON, "$.items.name");
+        assertSameAsTree(JSON, "$.header.id.foo");
+        assertSameAsTree(JSON, "$.nope.foo");
+        assertSameAsTree(JSON, "$.header[0]");
+        assertSameAsTree(JSON, "$.header.tags[5]");
+        assertSameAsTree(JSON, "$.header[*]");
+        assertSameAsTree(JSON, "$.items.*");
+        assertSameAsTree(JSON, "$.items[*].sub.x");
+        assertSameAsTree(JSON, "$.matrix[*][1]");
+    }
+
+    @Test
+    public void parser_left_at_end_of_value() throws Exception {
+        JsonParser parser = mapper.getFactory().createParser("{\"a\": {\"b\": 1, \"c\": [2]}} {\"a\": {\"b\": 3}}");
+        JsonPath path = JsonPath.compile("$.a.b");
+        assertEquals(1, path.evalStreaming(parser).asNode().asInt());
+        assertEquals(JsonToken.END_OBJECT, parser.getCurrentToken());
+        parser.nextToken();
+        assertEquals(3, path.evalStreaming(parser).asNode().asInt());
+        assertNull(parser.nextToken());
+    }
+
+    @Test
+    public void eval_overloads_stream() throws Exception {
+        JsonNode node = JsonPath.eval(JSON, "$.header.tags[*][?(@ == 'b')]").asNode();
+        assertEquals("[\"b\"]", node.toString());
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+/**
+ * Descriptions of the values of the evaluations, comparable across the ways of evaluating a path.
+ */
+class JsonPathValues {
+
+    private JsonPathValues() {
+        // static helpers
+    }
+
+    /**
+     * @return the type of the value, its content, and for a vector the name of each of its nodes
+     */
+    static String describe(JsonPathValue value) {
+        StringBuilder buffer = new StringBuilder(value.getClass().getSimpleName());
+        buffer.append(value.asNode().isMissingNode() ? "<missing>" : value.toString());
+        if (value instanceof JsonPathVectorValue) {
+            JsonPathVectorValue vector = (JsonPathVectorValue) value;
+            for (int i = 0; i < vector.size(); i++) {
+                buffer.append(' ').append(vector.getName(i));
+            }
+        }
+        return buffer.toString();
+    }
+
+    /**
+     * @return the description of the first <code>limit</code> nodes of the value if it is a vector, of the value
+     *         otherwise
+     */
+    static String describe(JsonPathValue value, int limit) {
+        if (!(value instanceof JsonPathVectorValue) || ((JsonPathVectorValue) value).size() <= limit) {
+            return describe(value);
+        }
+        JsonPathVectorValue vector = (JsonPathVectorValue) value;
+        JsonPathVectorValue first = new JsonPathVectorValue();
+        for (int i = 0; i < limit; i++) {
+            first.add(vector.get(i), vector.getName(i));
+        }
+        return describe(first);
+    }
+}
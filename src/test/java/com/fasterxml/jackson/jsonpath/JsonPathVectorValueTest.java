@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Test;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.POJONode;
+
+public class JsonPathVectorValueTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static String write(JsonPathValue value, boolean withCodec) throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonGenerator generator = withCodec ? MAPPER.getFactory().createGenerator(writer) : new JsonFactory()
+                .createGenerator(writer);
+        value.writeTo(generator);
+        generator.close();
+        return writer.toString();
+    }
+
+    @Test
+    public void written_without_array_node() throws Exception {
+        JsonPathVectorValue vector = JsonPathVectorValue.elementsOf(MAPPER.readTree("[1, {\"a\": [2.5, null, true]}]"));
+        vector.add(MAPPER.readTree("\"x\""), "x");
+        for (boolean withCodec : new boolean[] { true, false }) {
+            assertEquals("[1,{\"a\":[2.5,null,true]},\"x\"]", write(vector, withCodec));
+            assertEquals("[]", write(new JsonPathVectorValue(), withCodec));
+            assertEquals("{\"b\":1.5}", write(new JsonPathSingleValue(MAPPER.readTree("{\"b\": 1.5}")), withCodec));
+            assertEquals("", write(JsonPathSingleValue.EMPTY, withCodec));
+        }
+    }
+
+    @Test
+    public void pojos_written_with_or_without_codec() throws Exception {
+        JsonPathVectorValue vector = new JsonPathVectorValue();
+        vector.add(new POJONode(Collections.singletonMap("x", Arrays.asList(1, 2))), "p");
+        vector.add(new POJONode(null), "q");
+        for (boolean withCodec : new boolean[] { true, false }) {
+            assertEquals("[{\"x\":[1,2]},null]", write(vector, withCodec));
+        }
+    }
+
+    @Test
+    public void elements_are_a_view_on_the_array() throws Exception {
+        JsonNode array = MAPPER.readTree("[1, {\"a\": 2}, 3]");
+        JsonPathVectorValue vector = JsonPathVectorValue.elementsOf(array);
+        assertEquals(3, vector.size());
+        assertSame(array.get(1), vector.get(1));
+        assertEquals("2", vector.getName(2));
+    }
+
+    @Test
+    public void adding_to_a_view_does_not_modify_the_array() throws Exception {
+        JsonNode array = MAPPER.readTree("[1, 2]");
+        JsonPathVectorValue vector = JsonPathVectorValue.elementsOf(array);
+        vector.add(MAPPER.readTree("3"), "x");
+        assertEquals("[1,2,3]", vector.asNode().toString());
+        assertEquals("x", vector.getName(2));
+        assertEquals("[1,2]", array.toString());
+    }
+
+    @Test
+    public void vectors_are_concatenated() throws Exception {
+        JsonPathVectorValue ret = new JsonPathVectorValue();
+        JsonPathVectorValue.elementsOf(MAPPER.readTree("[1, 2]")).addTo(ret);
+        JsonPathVectorValue.elementsOf(MAPPER.readTree("[3]")).addTo(ret);
+        assertEquals(3, ret.size());
+        assertEquals("[1,2,3]", ret.asNode().toString());
+        assertEquals("0", ret.getName(2));
+    }
+
+    @Test
+    public void node_is_not_the_source_array() throws Exception {
+        JsonNode array = MAPPER.readTree("[1, 2]");
+        ArrayNode node = JsonPathVectorValue.elementsOf(array).asNode();
+        node.add(3);
+        assertEquals("[1,2]", array.toString());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void get_out_of_bounds() {
+        new JsonPathVectorValue(10).get(0);
+    }
+}
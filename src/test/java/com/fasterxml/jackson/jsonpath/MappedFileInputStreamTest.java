@@ -0,0 +1,109 @@
+/*
+ * Copyright 2014 the original author or authors.
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.fasterxml.jackson.jsonpath;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedFileInputStreamTest {
+
+    private File file;
+
+    private byte[] content;
+
+    @Before
+    public void writeFile() throws IOException {
+        content = "{\"a\": [1, 2, 3], \"b\": {\"c\": \"été\"}, \"d\": [{\"c\": 4}]}".getBytes("UTF-8");
+        file = File.createTempFile("jsonpath", ".json");
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            out.write(content);
+        } finally {
+            out.close();
+        }
+    }
+
+    @After
+    public void deleteFile() {
+        file.delete();
+    }
+
+    private static byte[] readAll(InputStream in, int bufferSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferSize];
+        int n;
+        while ((n = in.read(buffer, 0, buffer.length)) >= 0) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void read_across_chunks() throws IOException {
+        for (int chunkSize : new int[] { 1, 3, 7, content.length, MappedFileInputStream.DEFAULT_CHUNK_SIZE }) {
+            InputStream in = new MappedFileInputStream(file, chunkSize);
+            try {
+                assertArrayEquals("chunks of " + chunkSize, content, readAll(in, 5));
+                assertEquals(-1, in.read());
+            } finally {
+                in.close();
+            }
+        }
+    }
+
+    @Test
+    public void skip_across_chunks() throws IOException {
+        InputStream in = new MappedFileInputStream(file, 4);
+        try {
+            assertEquals('{', in.read());
+            assertEquals(6, in.skip(6));
+            assertEquals(content[7], in.read());
+            assertEquals(content.length - 8, in.available());
+            assertEquals(content.length - 8, in.skip(1000));
+            assertEquals(-1, in.read());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void empty_file() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.close();
+        InputStream in = new MappedFileInputStream(file);
+        try {
+            assertEquals(-1, in.read());
+        } finally {
+            in.close();
+        }
+    }
+
+    @Test
+    public void eval_mapped() throws Exception {
+        assertEquals("[1,2,3]", JsonPath.compile("$.a").evalMapped(file).toString());
+        assertEquals("[4]", JsonPath.compile("$.d[*].c").evalMapped(file).toString());
+        assertEquals("[2, {\"c\":\"été\"}]", JsonPathSet.compile("$.a[1]", "$.b").evalMapped(file).toString());
+    }
+}